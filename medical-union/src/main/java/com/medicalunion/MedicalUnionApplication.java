@@ -3,6 +3,7 @@ package com.medicalunion;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Medical Union Management System Application
@@ -11,6 +12,7 @@ import org.mybatis.spring.annotation.MapperScan;
  */
 @SpringBootApplication
 @MapperScan("com.medicalunion.**.mapper")
+@EnableScheduling
 public class MedicalUnionApplication {
 
     public static void main(String[] args) {
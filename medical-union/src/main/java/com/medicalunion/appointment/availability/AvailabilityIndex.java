@@ -0,0 +1,338 @@
+package com.medicalunion.appointment.availability;
+
+import com.medicalunion.appointment.dto.AvailabilityGrid;
+import com.medicalunion.appointment.entity.AppointmentSlot;
+import com.medicalunion.appointment.event.AppointmentChangedEvent;
+import com.medicalunion.appointment.event.SlotsGeneratedEvent;
+import com.medicalunion.appointment.mapper.AppointmentSlotMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号源可预约索引
+ * Availability Index - 今天起 window-days 天内开放号源的内存读模型：日期 → 医院/科室 → 医生 → 剩余号数
+ *
+ * - 启动后整体加载，之后按 refresh-interval-ms 定时重建，修正其他渠道（直接调用存储过程、关闭号源等）带来的差异
+ * - 预约、取消（{@link AppointmentChangedEvent}）增量修改对应号源的剩余号数；生成号源后重建受影响的日期
+ * - 每个「日期 + 科室」节点有一个版本号，内容变化时取全局递增序号；重建时内容未变的节点保留原版本号。
+ *   查询结果的 ETag 由涉及节点的版本号计算，任一节点变化 ETag 即变化，客户端可用 If-None-Match 得到 304。
+ *   版本号从本次启动的毫秒时间左移 20 位起算，重启或多实例之间不会出现相同版本号对应不同内容
+ * - 重建期间到达的增量先记录下来，新节点替换旧节点后再补上，避免查库之后提交的预约被覆盖
+ */
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+    private final AppointmentSlotMapper slotMapper;
+    private final int windowDays;
+
+    private final ConcurrentSkipListMap<LocalDate, Map<String, DepartmentDay>> days = new ConcurrentSkipListMap<>();
+    private final Map<Long, SlotEntry> slots = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis() << 20);
+    private final Object deltaLock = new Object();
+    private List<AppointmentChangedEvent> rebuildDeltas;
+    private volatile boolean loaded;
+
+    public AvailabilityIndex(AppointmentSlotMapper slotMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${appointment.availability.window-days:14}") int windowDays) {
+        this.slotMapper = slotMapper;
+        this.windowDays = windowDays;
+        Gauge.builder("appointment.availability.slots", slots, Map::size)
+                .description("可预约索引中的号源数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 查询日期区间内的可预约汇总，医院、科室为空时不过滤
+     */
+    public Snapshot query(Long hospitalId, Long departmentId, LocalDate from, int numDays) {
+        LocalDate today = LocalDate.now();
+        LocalDate to = from.plusDays(numDays - 1L);
+        if (numDays < 1 || from.isBefore(today) || to.isAfter(today.plusDays(windowDays - 1L))) {
+            throw new IllegalArgumentException("只能查询今天起 " + windowDays + " 天内的可预约号源");
+        }
+        if (!loaded) {
+            refresh();
+        }
+
+        AvailabilityGrid grid = new AvailabilityGrid();
+        grid.setFrom(from);
+        grid.setTo(to);
+        long hash = mix(mix(mix(17, Objects.hashCode(hospitalId)), Objects.hashCode(departmentId)), from.toEpochDay());
+        hash = mix(hash, to.toEpochDay());
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Map<String, DepartmentDay> nodes = days.get(date);
+            if (nodes == null) {
+                continue;
+            }
+            AvailabilityGrid.Day day = null;
+            for (DepartmentDay node : nodes.values()) {
+                if ((hospitalId != null && !hospitalId.equals(node.hospitalId))
+                        || (departmentId != null && !departmentId.equals(node.departmentId))) {
+                    continue;
+                }
+                // 先读版本号再读内容：内容只可能比版本号新，不会出现旧内容配新 ETag
+                hash = mix(mix(hash, date.toEpochDay()), node.version);
+                if (day == null) {
+                    day = new AvailabilityGrid.Day();
+                    day.setDate(date);
+                    grid.getDays().add(day);
+                }
+                day.getDepartments().add(node.toDepartment());
+            }
+        }
+        return new Snapshot("\"" + Long.toHexString(hash) + "\"", grid);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("可预约索引预加载失败，首次查询时重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时重建整个窗口，并丢弃已过去的日期
+     */
+    @Scheduled(initialDelayString = "${appointment.availability.refresh-interval-ms:300000}",
+            fixedDelayString = "${appointment.availability.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        LocalDate today = LocalDate.now();
+        rebuild(today, today.plusDays(windowDays - 1L));
+        Map<LocalDate, Map<String, DepartmentDay>> past = days.headMap(today);
+        for (Map<String, DepartmentDay> nodes : past.values()) {
+            removeEntries(nodes);
+        }
+        past.clear();
+        loaded = true;
+    }
+
+    /**
+     * 预约或取消：增量修改剩余号数
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        synchronized (deltaLock) {
+            if (rebuildDeltas != null) {
+                rebuildDeltas.add(event);
+            }
+            apply(event);
+        }
+    }
+
+    private void apply(AppointmentChangedEvent event) {
+        SlotEntry entry = slots.get(event.getSlotId());
+        if (entry == null) {
+            // 不在窗口内，或在本次重建之后才生成，等下次重建
+            return;
+        }
+        entry.remaining.updateAndGet(r -> Math.max(0, Math.min(entry.capacity, r + event.getRemainingDelta())));
+        entry.node.version = versions.incrementAndGet();
+    }
+
+    /**
+     * 批量生成号源后重建窗口内受影响的日期
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotsGenerated(SlotsGeneratedEvent event) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = event.getFromDate().isBefore(today) ? today : event.getFromDate();
+        LocalDate windowEnd = today.plusDays(windowDays - 1L);
+        LocalDate to = event.getToDate().isAfter(windowEnd) ? windowEnd : event.getToDate();
+        if (!from.isAfter(to)) {
+            rebuild(from, to);
+        }
+    }
+
+    private synchronized void rebuild(LocalDate from, LocalDate to) {
+        synchronized (deltaLock) {
+            rebuildDeltas = new ArrayList<>();
+        }
+        try {
+            rebuildRange(from, to);
+        } finally {
+            synchronized (deltaLock) {
+                rebuildDeltas = null;
+            }
+        }
+    }
+
+    private void rebuildRange(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<String, List<AppointmentSlot>>> grouped = new HashMap<>();
+        for (AppointmentSlot slot : slotMapper.findOpenBetween(from, to)) {
+            grouped.computeIfAbsent(slot.getSlotDate(), d -> new HashMap<>())
+                    .computeIfAbsent(nodeKey(slot.getHospitalId(), slot.getDepartmentId()), k -> new ArrayList<>())
+                    .add(slot);
+        }
+
+        int count = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Map<String, DepartmentDay> previous = days.get(date);
+            Map<String, List<AppointmentSlot>> byNode = grouped.getOrDefault(date, new HashMap<>());
+
+            List<DepartmentDay> built = new ArrayList<>(byNode.size());
+            for (List<AppointmentSlot> rows : byNode.values()) {
+                built.add(new DepartmentDay(rows));
+                count += rows.size();
+            }
+            built.sort(Comparator.comparing((DepartmentDay n) -> n.hospitalId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(n -> n.departmentId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            Map<String, DepartmentDay> nodes = new LinkedHashMap<>();
+            for (DepartmentDay node : built) {
+                String key = nodeKey(node.hospitalId, node.departmentId);
+                DepartmentDay old = previous != null ? previous.get(key) : null;
+                node.version = old != null && old.sameContent(node) ? old.version : versions.incrementAndGet();
+                nodes.put(key, node);
+            }
+
+            synchronized (deltaLock) {
+                if (previous != null) {
+                    removeEntries(previous);
+                }
+                for (DepartmentDay node : built) {
+                    for (SlotEntry entry : node.entries) {
+                        slots.put(entry.slotId, entry);
+                    }
+                }
+                days.put(date, nodes);
+                // 查库开始后收到的增量大多未包含在查询结果中，补到本日期的新节点上；
+                // 提交与事件送达之间恰好发生查库时会重复计入，由 [0, capacity] 截断和下次重建修正
+                for (AppointmentChangedEvent event : rebuildDeltas) {
+                    SlotEntry entry = slots.get(event.getSlotId());
+                    if (entry != null && nodes.get(nodeKey(entry.node.hospitalId, entry.node.departmentId)) == entry.node) {
+                        apply(event);
+                    }
+                }
+            }
+        }
+        log.info("可预约索引已重建 - 区间: {} ~ {}, 号源: {}", from, to, count);
+    }
+
+    private void removeEntries(Map<String, DepartmentDay> nodes) {
+        for (DepartmentDay node : nodes.values()) {
+            for (SlotEntry entry : node.entries) {
+                slots.remove(entry.slotId, entry);
+            }
+        }
+    }
+
+    private static String nodeKey(Long hospitalId, Long departmentId) {
+        return hospitalId + ":" + departmentId;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * 查询结果及其 ETag
+     */
+    @Getter
+    public static final class Snapshot {
+        private final String etag;
+        private final AvailabilityGrid grid;
+
+        private Snapshot(String etag, AvailabilityGrid grid) {
+            this.etag = etag;
+            this.grid = grid;
+        }
+    }
+
+    /**
+     * 某日某科室的号源，按医生、开始时间排序
+     */
+    private static final class DepartmentDay {
+        private final Long hospitalId;
+        private final Long departmentId;
+        private final List<SlotEntry> entries;
+        private volatile long version;
+
+        private DepartmentDay(List<AppointmentSlot> rows) {
+            rows.sort(Comparator.comparing(AppointmentSlot::getDoctorId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(AppointmentSlot::getStartTime)
+                    .thenComparing(AppointmentSlot::getId));
+            this.hospitalId = rows.get(0).getHospitalId();
+            this.departmentId = rows.get(0).getDepartmentId();
+            this.entries = new ArrayList<>(rows.size());
+            for (AppointmentSlot row : rows) {
+                entries.add(new SlotEntry(row, this));
+            }
+        }
+
+        private boolean sameContent(DepartmentDay other) {
+            if (entries.size() != other.entries.size()) {
+                return false;
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                SlotEntry a = entries.get(i);
+                SlotEntry b = other.entries.get(i);
+                if (!a.slotId.equals(b.slotId) || !Objects.equals(a.doctorId, b.doctorId)
+                        || a.remaining.get() != b.remaining.get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private AvailabilityGrid.Department toDepartment() {
+            AvailabilityGrid.Department department = new AvailabilityGrid.Department();
+            department.setHospitalId(hospitalId);
+            department.setDepartmentId(departmentId);
+            AvailabilityGrid.Doctor doctor = null;
+            for (SlotEntry entry : entries) {
+                if (doctor == null || !Objects.equals(doctor.getDoctorId(), entry.doctorId)) {
+                    doctor = new AvailabilityGrid.Doctor();
+                    doctor.setDoctorId(entry.doctorId);
+                    department.getDoctors().add(doctor);
+                }
+                int remaining = entry.remaining.get();
+                doctor.setRemaining(doctor.getRemaining() + remaining);
+                doctor.setSlots(doctor.getSlots() + 1);
+                department.setRemaining(department.getRemaining() + remaining);
+            }
+            return department;
+        }
+    }
+
+    private static final class SlotEntry {
+        private final Long slotId;
+        private final Long doctorId;
+        private final int capacity;
+        private final AtomicInteger remaining;
+        private final DepartmentDay node;
+
+        private SlotEntry(AppointmentSlot row, DepartmentDay node) {
+            this.slotId = row.getId();
+            this.doctorId = row.getDoctorId();
+            this.capacity = row.getCapacity() != null ? row.getCapacity() : Integer.MAX_VALUE;
+            this.remaining = new AtomicInteger(row.getRemaining() != null ? row.getRemaining() : 0);
+            this.node = node;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.medicalunion.appointment.booking;
+
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.dto.QueueTicket;
+import com.medicalunion.appointment.entity.AppointmentSlot;
+import com.medicalunion.appointment.event.AppointmentChangedEvent;
+import com.medicalunion.appointment.mapper.AppointmentSlotMapper;
+import com.medicalunion.appointment.service.AppointmentService;
+import com.medicalunion.common.cache.LocalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约排队服务
+ * Booking Queue Service - 每个号源一个有界 FIFO 排队队列，按固定速率出队执行预约（{@link SlotBooker}）
+ *
+ * - 入队立即返回排队位置和 token，客户端凭 token 轮询结果，请求线程不等待数据库
+ * - 调度线程每个周期最多发出 max-per-second × 周期 次预约，各号源轮流出队，
+ *   放号高峰时数据库看到的是平稳、有上限的预约速率
+ * - 队列满时直接拒绝；同一患者在同一号源同时只能有一个排队或处理中的请求；
+ *   预约返回已无号时，该号源队列中剩余请求全部置为约满，
+ *   约满状态保留 sold-out-recheck-ms 期间新请求不再入队（取消预约会立即解除）
+ * - 出队在独立的单线程调度器上执行，不与其他 @Scheduled 任务共用 Spring 默认的单线程调度器，
+ *   统计汇总、索引重建等慢任务不会拖慢出队速率
+ *
+ * 队列只在本实例内存中，实例重启时排队中的请求会丢失，需要客户端重新提交
+ */
+@Slf4j
+@Service
+public class BookingQueueService {
+
+    private final AppointmentSlotMapper slotMapper;
+    private final AppointmentService appointmentService;
+    private final int capacityPerSlot;
+    private final int permitsPerTick;
+    private final long soldOutRecheckMillis;
+    private final long dispatchIntervalMillis;
+    private final ScheduledExecutorService dispatcher;
+
+    private final Map<Long, SlotQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, QueuedBooking> waiting = new ConcurrentHashMap<>();
+    private final LocalCache<String, QueueTicket> results;
+    private int cursor;
+
+    private final Counter queued;
+    private final Counter rejected;
+    private final Counter booked;
+    private final Counter soldOut;
+    private final Counter failed;
+    private final Timer bookingTimer;
+
+    public BookingQueueService(AppointmentSlotMapper slotMapper,
+                               AppointmentService appointmentService,
+                               MeterRegistry meterRegistry,
+                               @Value("${appointment.queue.capacity-per-slot:2000}") int capacityPerSlot,
+                               @Value("${appointment.queue.max-bookings-per-second:50}") int maxBookingsPerSecond,
+                               @Value("${appointment.queue.dispatch-interval-ms:100}") long dispatchIntervalMillis,
+                               @Value("${appointment.queue.sold-out-recheck-ms:5000}") long soldOutRecheckMillis,
+                               @Value("${appointment.queue.result-ttl-ms:600000}") long resultTtlMillis) {
+        this.slotMapper = slotMapper;
+        this.appointmentService = appointmentService;
+        this.capacityPerSlot = capacityPerSlot;
+        this.permitsPerTick = (int) Math.max(1, maxBookingsPerSecond * dispatchIntervalMillis / 1000);
+        this.soldOutRecheckMillis = soldOutRecheckMillis;
+        this.dispatchIntervalMillis = dispatchIntervalMillis;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booking-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.results = new LocalCache<>(resultTtlMillis, 200_000);
+
+        this.queued = counter(meterRegistry, "queued");
+        this.rejected = counter(meterRegistry, "rejected");
+        this.booked = counter(meterRegistry, "booked");
+        this.soldOut = counter(meterRegistry, "sold_out");
+        this.failed = counter(meterRegistry, "failed");
+        this.bookingTimer = Timer.builder("appointment.queue.booking")
+                .description("单次预约调用耗时")
+                .register(meterRegistry);
+        Gauge.builder("appointment.queue.waiting", waiting, Map::size)
+                .description("排队中及处理中的预约请求数")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("appointment.queue.requests")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.scheduleWithFixedDelay(() -> {
+            try {
+                dispatch();
+            } catch (RuntimeException e) {
+                // 未捕获的异常会终止后续调度
+                log.error("预约出队失败", e);
+            }
+        }, dispatchIntervalMillis, dispatchIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 预约请求入队
+     */
+    public QueueTicket enqueue(BookingRequest request) {
+        while (true) {
+            SlotQueue queue = queues.computeIfAbsent(request.getSlotId(), this::load);
+            if (queue == null) {
+                throw new IllegalArgumentException("号源不存在或未开放");
+            }
+            synchronized (queue) {
+                if (queue.removed) {
+                    // 恰好被空闲清理移除，重新创建
+                    continue;
+                }
+                queue.lastActive = System.currentTimeMillis();
+                if (queue.soldOutAt > 0) {
+                    if (queue.lastActive - queue.soldOutAt < soldOutRecheckMillis) {
+                        soldOut.increment();
+                        return QueueTicket.of(null, request.getSlotId(), QueueTicket.SOLD_OUT, null, null, "号源已约满");
+                    }
+                    queue.soldOutAt = 0;
+                }
+                if (queue.patients.contains(request.getPatientId())) {
+                    rejected.increment();
+                    return QueueTicket.of(null, request.getSlotId(), QueueTicket.REJECTED, null, null,
+                            "该患者已在此号源排队，请勿重复提交");
+                }
+                if (queue.bookings.size() >= capacityPerSlot) {
+                    rejected.increment();
+                    return QueueTicket.of(null, request.getSlotId(), QueueTicket.REJECTED, null, null,
+                            "排队人数已满，请稍后再试");
+                }
+                QueuedBooking booking = new QueuedBooking(UUID.randomUUID().toString().replace("-", ""),
+                        request, queue, ++queue.enqueued);
+                queue.bookings.addLast(booking);
+                queue.patients.add(request.getPatientId());
+                waiting.put(booking.token, booking);
+                queued.increment();
+                return QueueTicket.of(booking.token, request.getSlotId(), QueueTicket.QUEUED,
+                        booking.sequence - queue.dispatched, null, "已进入排队");
+            }
+        }
+    }
+
+    /**
+     * 按 token 查询排队位置或预约结果
+     */
+    public QueueTicket find(String token) {
+        QueuedBooking booking = waiting.get(token);
+        if (booking != null) {
+            long position = booking.sequence - booking.queue.dispatched;
+            if (position <= 0) {
+                return QueueTicket.of(token, booking.request.getSlotId(), QueueTicket.PROCESSING, 0L, null, "正在预约");
+            }
+            return QueueTicket.of(token, booking.request.getSlotId(), QueueTicket.QUEUED, position, null, "排队中");
+        }
+        QueueTicket result = results.get(token);
+        if (result != null) {
+            return result;
+        }
+        return QueueTicket.of(token, null, QueueTicket.NOT_FOUND, null, null, "排队凭证不存在或已过期");
+    }
+
+    private SlotQueue load(Long slotId) {
+        AppointmentSlot slot = slotMapper.findById(slotId);
+        if (slot == null || !"OPEN".equals(slot.getStatus())) {
+            return null;
+        }
+        return new SlotQueue(slotId, slot.getSlotType());
+    }
+
+    /**
+     * 按固定速率出队预约：每个周期最多 permitsPerTick 次预约，各号源轮流出队一个
+     */
+    synchronized void dispatch() {
+        List<SlotQueue> active = new ArrayList<>(queues.values());
+        if (active.isEmpty()) {
+            return;
+        }
+        int permits = permitsPerTick;
+        boolean progressed = true;
+        while (permits > 0 && progressed) {
+            progressed = false;
+            for (int n = 0; n < active.size() && permits > 0; n++) {
+                SlotQueue queue = active.get((cursor + n) % active.size());
+                QueuedBooking booking = poll(queue);
+                if (booking != null) {
+                    book(booking);
+                    permits--;
+                    progressed = true;
+                }
+            }
+            cursor = (cursor + 1) % active.size();
+        }
+    }
+
+    private QueuedBooking poll(SlotQueue queue) {
+        synchronized (queue) {
+            QueuedBooking booking = queue.bookings.pollFirst();
+            if (booking != null) {
+                queue.dispatched = booking.sequence;
+            }
+            return booking;
+        }
+    }
+
+    private void book(QueuedBooking booking) {
+        BookingRequest request = booking.request;
+        AppointmentResult result = bookingTimer.record(
+                () -> appointmentService.createAppointment(request, booking.queue.slotType));
+        if (result.isSuccess()) {
+            booked.increment();
+            finish(booking, QueueTicket.BOOKED, result.getAppointmentId(), "预约成功");
+        } else if (Integer.valueOf(AppointmentResult.UNAVAILABLE).equals(result.getResultCode())) {
+            soldOut.increment();
+            finish(booking, QueueTicket.SOLD_OUT, null, "号源已约满");
+            markSoldOut(booking.queue);
+        } else if (Integer.valueOf(AppointmentResult.NOT_FOUND).equals(result.getResultCode())) {
+            failed.increment();
+            finish(booking, QueueTicket.FAILED, null, result.getResultMessage());
+            markSoldOut(booking.queue);
+        } else {
+            failed.increment();
+            finish(booking, QueueTicket.FAILED, null, result.getResultMessage());
+        }
+    }
+
+    /**
+     * 号源已无号：队列中剩余请求不再访问数据库，全部置为约满
+     */
+    private void markSoldOut(SlotQueue queue) {
+        List<QueuedBooking> remaining;
+        synchronized (queue) {
+            queue.soldOutAt = System.currentTimeMillis();
+            remaining = new ArrayList<>(queue.bookings);
+            queue.bookings.clear();
+            if (!remaining.isEmpty()) {
+                queue.dispatched = remaining.get(remaining.size() - 1).sequence;
+            }
+        }
+        for (QueuedBooking booking : remaining) {
+            soldOut.increment();
+            finish(booking, QueueTicket.SOLD_OUT, null, "号源已约满");
+        }
+        if (!remaining.isEmpty()) {
+            log.info("号源已约满，{} 个排队请求直接结束, slotId: {}", remaining.size(), queue.slotId);
+        }
+    }
+
+    private void finish(QueuedBooking booking, String status, Long appointmentId, String message) {
+        results.put(booking.token, QueueTicket.of(booking.token, booking.request.getSlotId(), status, null,
+                appointmentId, message));
+        waiting.remove(booking.token);
+        synchronized (booking.queue) {
+            booking.queue.patients.remove(booking.request.getPatientId());
+        }
+    }
+
+    /**
+     * 取消预约归还了号源，解除约满状态
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.getRemainingDelta() <= 0) {
+            return;
+        }
+        SlotQueue queue = queues.get(event.getSlotId());
+        if (queue != null) {
+            synchronized (queue) {
+                queue.soldOutAt = 0;
+            }
+        }
+    }
+
+    /**
+     * 清理过期结果和长时间空闲的号源队列
+     */
+    @Scheduled(fixedDelayString = "${appointment.queue.purge-interval-ms:60000}")
+    public void purge() {
+        results.purgeExpired();
+        long idleBefore = System.currentTimeMillis() - 10 * 60 * 1000L;
+        for (Long slotId : new ArrayList<>(queues.keySet())) {
+            queues.computeIfPresent(slotId, (id, queue) -> {
+                synchronized (queue) {
+                    if (queue.bookings.isEmpty() && queue.lastActive < idleBefore) {
+                        queue.removed = true;
+                        return null;
+                    }
+                    return queue;
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        if (!waiting.isEmpty()) {
+            log.warn("关闭时仍有 {} 个预约请求在排队，需客户端重新提交", waiting.size());
+        }
+    }
+
+    private static final class SlotQueue {
+        private final Long slotId;
+        private final String slotType;
+        private final Deque<QueuedBooking> bookings = new ArrayDeque<>();
+
+        /**
+         * 排队中及处理中的患者，防止同一患者占满队列
+         */
+        private final Set<Long> patients = new HashSet<>();
+
+        /**
+         * 已入队序号 / 已出队的最大序号，两者之差即排队人数
+         */
+        private long enqueued;
+        private volatile long dispatched;
+
+        private long lastActive = System.currentTimeMillis();
+        private long soldOutAt;
+        private boolean removed;
+
+        private SlotQueue(Long slotId, String slotType) {
+            this.slotId = slotId;
+            this.slotType = slotType;
+        }
+    }
+
+    private static final class QueuedBooking {
+        private final String token;
+        private final BookingRequest request;
+        private final SlotQueue queue;
+        private final long sequence;
+
+        private QueuedBooking(String token, BookingRequest request, SlotQueue queue, long sequence) {
+            this.token = token;
+            this.request = request;
+            this.queue = queue;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.medicalunion.appointment.booking;
+
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.entity.Appointment;
+import com.medicalunion.appointment.entity.AppointmentSlot;
+import com.medicalunion.appointment.mapper.AppointmentMapper;
+import com.medicalunion.appointment.mapper.AppointmentSlotMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 乐观预约执行器
+ * Optimistic Slot Booker - 不加 FOR UPDATE 读锁，用条件 UPDATE 扣减号源
+ *
+ * 预约：无锁读取号源 → 事务内先执行 remaining &gt;= 1 条件扣减，影响 0 行即已约满直接返回 → 再插入预约。
+ * 先扣减再插入：插入预约时 fk_app_slot 外键检查会对号源行加共享锁，若先插入再扣减，
+ * 两个并发事务各持共享锁再等待排他锁会形成死锁；先扣减则第一条语句就取得排他锁，
+ * 之后的外键检查不再需要新锁，并发预约只在该行上排队，约满时也不会插入再回滚、浪费自增 ID。
+ * 号源行排他锁持有到提交为止，即覆盖插入预约的时间；与 SlotTicketingService 的写入顺序一致。
+ * remaining 条件本身就是版本校验，不需要额外的 version 列。
+ * 取消：status 条件更新预约，再把号源剩余数条件归还（不超过 capacity）。
+ *
+ * 死锁、锁等待超时等瞬时异常按 max-attempts 有限次重试，每次等待随机退避（full jitter）。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "appointment.booking.mode", havingValue = "optimistic")
+public class OptimisticSlotBooker implements SlotBooker {
+
+    private final AppointmentMapper appointmentMapper;
+    private final AppointmentSlotMapper slotMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter retries;
+
+    public OptimisticSlotBooker(AppointmentMapper appointmentMapper,
+                                AppointmentSlotMapper slotMapper,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${appointment.booking.max-attempts:3}") int maxAttempts,
+                                @Value("${appointment.booking.backoff-ms:20}") long backoffMillis) {
+        this.appointmentMapper = appointmentMapper;
+        this.slotMapper = slotMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(1, backoffMillis);
+        this.retries = Counter.builder("appointment.booking.retries")
+                .description("乐观预约因瞬时数据库异常重试的次数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public AppointmentResult book(BookingRequest request, String appointmentType) {
+        AppointmentSlot slot = slotMapper.findById(request.getSlotId());
+        if (slot == null) {
+            return AppointmentResult.of(AppointmentResult.NOT_FOUND, "Slot not found", null);
+        }
+        if (slot.getRemaining() == null || slot.getRemaining() <= 0) {
+            return AppointmentResult.of(AppointmentResult.UNAVAILABLE, "No tickets available", null);
+        }
+
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            if (slotMapper.decrementRemaining(slot.getId(), 1) == 0) {
+                return AppointmentResult.of(AppointmentResult.UNAVAILABLE, "No tickets available", null);
+            }
+            Appointment appointment = toAppointment(slot, request, appointmentType);
+            appointmentMapper.insert(appointment);
+            return AppointmentResult.of(0, "OK", appointment.getId());
+        }));
+    }
+
+    @Override
+    public AppointmentResult cancel(Appointment appointment, Long requestingUserId) {
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            if (appointmentMapper.cancelIfActive(appointment.getId()) == 0) {
+                return AppointmentResult.of(AppointmentResult.UNAVAILABLE, "Cannot cancel in current state",
+                        appointment.getId());
+            }
+            BigDecimal refund = BigDecimal.ZERO;
+            LocalDateTime visit = appointment.getVisitDatetime();
+            if (visit != null && Duration.between(LocalDateTime.now(), visit).toHours() > 24) {
+                BigDecimal paid = appointmentMapper.findPaidAmount(appointment.getId());
+                refund = paid != null ? paid : BigDecimal.ZERO;
+            }
+            if (appointment.getSlotId() != null) {
+                slotMapper.incrementRemaining(appointment.getSlotId(), 1);
+            }
+            AppointmentResult result = AppointmentResult.of(0, "OK", appointment.getId());
+            result.setRefundAmount(refund);
+            return result;
+        }));
+    }
+
+    /**
+     * 瞬时异常（死锁、锁等待超时）重试，退避时间在 [0, backoff × 2^n) 内随机
+     */
+    private AppointmentResult withRetry(Supplier<AppointmentResult> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                retries.increment();
+                log.debug("预约遇到瞬时数据库异常，第 {} 次重试: {}", attempt, e.getMessage());
+                sleep(ThreadLocalRandom.current().nextLong(backoffMillis << (attempt - 1)));
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("预约重试等待被中断", e);
+        }
+    }
+
+    private static Appointment toAppointment(AppointmentSlot slot, BookingRequest request, String appointmentType) {
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(request.getPatientId());
+        appointment.setBookingUserId(request.getBookingUserId());
+        appointment.setFamilyMemberId(request.getFamilyMemberId());
+        appointment.setDoctorId(slot.getDoctorId());
+        appointment.setHospitalId(slot.getHospitalId());
+        appointment.setDepartmentId(slot.getDepartmentId());
+        appointment.setSlotId(slot.getId());
+        appointment.setAppointmentType(appointmentType);
+        appointment.setVisitDatetime(LocalDateTime.of(slot.getSlotDate(), slot.getStartTime()));
+        appointment.setStatus("CONFIRMED");
+        appointment.setComplaint(request.getComplaint());
+        appointment.setIsInsurance(Boolean.TRUE.equals(request.getIsInsurance()));
+        appointment.setSource(request.getSource() == null ? "WEB" : request.getSource());
+        appointment.setCreatedBy(request.getBookingUserId());
+        return appointment;
+    }
+}
@@ -0,0 +1,58 @@
+package com.medicalunion.appointment.booking;
+
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.entity.Appointment;
+import com.medicalunion.appointment.mapper.AppointmentMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 存储过程预约执行器
+ * Procedure Slot Booker - 调用 sp_create_appointment / sp_cancel_appointment
+ *
+ * 存储过程内部自行开启并提交事务，号源行在整个事务期间 FOR UPDATE 加锁
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "appointment.booking.mode", havingValue = "procedure", matchIfMissing = true)
+public class ProcedureSlotBooker implements SlotBooker {
+    
+    private final AppointmentMapper appointmentMapper;
+    
+    @Override
+    public AppointmentResult book(BookingRequest request, String appointmentType) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("patientId", request.getPatientId());
+        params.put("bookingUserId", request.getBookingUserId());
+        params.put("familyMemberId", request.getFamilyMemberId());
+        params.put("slotId", request.getSlotId());
+        params.put("appointmentType", appointmentType);
+        params.put("complaint", request.getComplaint());
+        params.put("isInsurance", Boolean.TRUE.equals(request.getIsInsurance()) ? 1 : 0);
+        
+        appointmentMapper.createAppointment(params);
+        
+        return AppointmentResult.of((Integer) params.get("resultCode"),
+                (String) params.get("resultMessage"), (Long) params.get("appointmentId"));
+    }
+    
+    @Override
+    public AppointmentResult cancel(Appointment appointment, Long requestingUserId) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("appointmentId", appointment.getId());
+        params.put("requestingUserId", requestingUserId);
+        
+        appointmentMapper.cancelAppointment(params);
+        
+        AppointmentResult result = AppointmentResult.of((Integer) params.get("resultCode"),
+                (String) params.get("resultMessage"), appointment.getId());
+        result.setRefundAmount((BigDecimal) params.get("refundAmount"));
+        return result;
+    }
+}
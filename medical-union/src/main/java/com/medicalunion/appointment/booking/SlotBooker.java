@@ -0,0 +1,29 @@
+package com.medicalunion.appointment.booking;
+
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.entity.Appointment;
+
+/**
+ * 号源预约执行器
+ * Slot Booker - 扣减号源并写入/取消预约的数据库操作
+ *
+ * 由 appointment.booking.mode 选择实现：
+ * procedure（默认）{@link ProcedureSlotBooker} 调用存储过程，号源行 FOR UPDATE 加锁；
+ * optimistic {@link OptimisticSlotBooker} 使用条件 UPDATE 扣减，冲突时有限次重试。
+ * 两种实现的结果代码与消息一致，见 {@link AppointmentResult}。
+ */
+public interface SlotBooker {
+    
+    /**
+     * 预约一个号
+     *
+     * @param appointmentType 号别（普通/专家/特需）
+     */
+    AppointmentResult book(BookingRequest request, String appointmentType);
+    
+    /**
+     * 取消预约并归还号源
+     */
+    AppointmentResult cancel(Appointment appointment, Long requestingUserId);
+}
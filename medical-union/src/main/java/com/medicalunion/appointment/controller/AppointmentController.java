@@ -0,0 +1,186 @@
+package com.medicalunion.appointment.controller;
+
+import com.medicalunion.appointment.availability.AvailabilityIndex;
+import com.medicalunion.appointment.booking.BookingQueueService;
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.AvailabilityGrid;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.dto.QueueTicket;
+import com.medicalunion.appointment.dto.TicketResult;
+import com.medicalunion.appointment.entity.Appointment;
+import com.medicalunion.appointment.service.AppointmentService;
+import com.medicalunion.appointment.ticketing.SlotTicketingService;
+import com.medicalunion.common.Result;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * 预约控制器
+ * Appointment Controller - 提供预约挂号的REST API
+ */
+@Slf4j
+@RestController
+@RequestMapping("/appointments")
+@RequiredArgsConstructor
+@Validated
+public class AppointmentController {
+    
+    private final SlotTicketingService slotTicketingService;
+    private final BookingQueueService bookingQueueService;
+    private final AppointmentService appointmentService;
+    private final AvailabilityIndex availabilityIndex;
+    
+    /**
+     * 查询可预约号源汇总（日期 → 科室 → 医生 → 剩余号数），支持 If-None-Match，未变化时返回 304
+     * GET /api/appointments/availability?hospitalId=&departmentId=&date=&days=
+     */
+    @GetMapping("/availability")
+    public Result<AvailabilityGrid> getAvailability(
+            @RequestParam(required = false) Long hospitalId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "7") int days,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+        try {
+            AvailabilityIndex.Snapshot snapshot = availabilityIndex.query(hospitalId, departmentId,
+                    date != null ? date : LocalDate.now(), days);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            if (webRequest.checkNotModified(snapshot.getEtag())) {
+                return null;
+            }
+            return Result.success("查询可预约号源成功", snapshot.getGrid());
+        } catch (IllegalArgumentException e) {
+            log.warn("查询可预约号源失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("查询可预约号源失败", e);
+            return Result.error("查询可预约号源失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 根据ID查询预约
+     * GET /api/appointments/{id}
+     */
+    @GetMapping("/{id}")
+    public Result<Appointment> getAppointmentById(@PathVariable @NotNull Long id) {
+        try {
+            Appointment appointment = appointmentService.findById(id);
+            if (appointment != null) {
+                return Result.success("查询预约成功", appointment);
+            } else {
+                return Result.error(404, "预约不存在");
+            }
+        } catch (Exception e) {
+            log.error("查询预约失败, ID: {}", id, e);
+            return Result.error("查询预约失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 预约排队（按号源排队，固定速率调用预约存储过程，返回排队位置和 token）
+     * POST /api/appointments/queue
+     */
+    @PostMapping("/queue")
+    public Result<QueueTicket> enqueueBooking(@RequestBody @Valid BookingRequest request) {
+        try {
+            QueueTicket ticket = bookingQueueService.enqueue(request);
+            return Result.success(ticket.getMessage(), ticket);
+        } catch (IllegalArgumentException e) {
+            log.warn("预约排队失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("预约排队失败, slotId: {}", request.getSlotId(), e);
+            return Result.error("预约排队失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 按 token 查询排队位置或预约结果
+     * GET /api/appointments/queue/{token}
+     */
+    @GetMapping("/queue/{token}")
+    public Result<QueueTicket> getQueueTicket(@PathVariable @NotBlank String token) {
+        try {
+            QueueTicket ticket = bookingQueueService.find(token);
+            if (QueueTicket.NOT_FOUND.equals(ticket.getStatus())) {
+                return Result.error(404, ticket.getMessage());
+            }
+            return Result.success(ticket.getMessage(), ticket);
+        } catch (Exception e) {
+            log.error("查询排队结果失败, token: {}", token, e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 取消预约
+     * PUT /api/appointments/{id}/cancel
+     */
+    @PutMapping("/{id}/cancel")
+    public Result<AppointmentResult> cancelAppointment(
+            @PathVariable @NotNull Long id,
+            @RequestParam(required = false) Long requestingUserId) {
+        try {
+            AppointmentResult result = appointmentService.cancelAppointment(id, requestingUserId);
+            if (result.isSuccess()) {
+                return Result.success("取消预约成功", result);
+            } else if (Integer.valueOf(AppointmentResult.NOT_FOUND).equals(result.getResultCode())) {
+                return Result.error(404, result.getResultMessage());
+            } else {
+                return Result.error(400, result.getResultMessage());
+            }
+        } catch (Exception e) {
+            log.error("取消预约失败, ID: {}", id, e);
+            return Result.error("取消预约失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 抢号（内存计数，立即返回票号，预约记录异步写入）
+     * POST /api/appointments/tickets
+     */
+    @PostMapping("/tickets")
+    public Result<TicketResult> acquireTicket(@RequestBody @Valid BookingRequest request) {
+        try {
+            TicketResult result = slotTicketingService.acquire(request);
+            return Result.success(result.getMessage(), result);
+        } catch (IllegalArgumentException e) {
+            log.warn("抢号失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("抢号失败, slotId: {}", request.getSlotId(), e);
+            return Result.error("抢号失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 按票号查询抢号结果（PENDING / CONFIRMED / FAILED / NOT_FOUND）
+     * GET /api/appointments/tickets/{ticketNumber}
+     */
+    @GetMapping("/tickets/{ticketNumber}")
+    public Result<TicketResult> getTicket(@PathVariable @NotBlank String ticketNumber) {
+        try {
+            TicketResult result = slotTicketingService.findTicket(ticketNumber);
+            if (TicketResult.NOT_FOUND.equals(result.getStatus())) {
+                return Result.error(404, result.getMessage());
+            }
+            return Result.success(result.getMessage(), result);
+        } catch (Exception e) {
+            log.error("查询抢号结果失败, 票号: {}", ticketNumber, e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.medicalunion.appointment.controller;
+
+import com.medicalunion.appointment.dto.SlotGenerationReport;
+import com.medicalunion.appointment.dto.SlotGenerationRequest;
+import com.medicalunion.appointment.entity.ScheduleTemplate;
+import com.medicalunion.appointment.service.ScheduleService;
+import com.medicalunion.common.Result;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * 排班控制器
+ * Schedule Controller - 排班模板维护与号源批量生成
+ */
+@Slf4j
+@RestController
+@RequestMapping("/appointments/schedules")
+@RequiredArgsConstructor
+@Validated
+public class ScheduleController {
+    
+    private final ScheduleService scheduleService;
+    
+    /**
+     * 查询医生的排班模板
+     * GET /api/appointments/schedules/templates?doctorId=
+     */
+    @GetMapping("/templates")
+    public Result<List<ScheduleTemplate>> getTemplates(@RequestParam @NotNull Long doctorId) {
+        try {
+            List<ScheduleTemplate> templates = scheduleService.findTemplatesByDoctorId(doctorId);
+            return Result.success("查询排班模板成功", templates);
+        } catch (Exception e) {
+            log.error("查询排班模板失败, 医生ID: {}", doctorId, e);
+            return Result.error("查询排班模板失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量创建排班模板
+     * POST /api/appointments/schedules/templates
+     */
+    @PostMapping("/templates")
+    public Result<List<ScheduleTemplate>> createTemplates(@RequestBody List<ScheduleTemplate> templates) {
+        try {
+            List<ScheduleTemplate> created = scheduleService.createTemplates(templates);
+            return Result.success("创建排班模板成功", created);
+        } catch (IllegalArgumentException e) {
+            log.warn("创建排班模板失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("创建排班模板失败", e);
+            return Result.error("创建排班模板失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 删除排班模板（已生成的号源保留）
+     * DELETE /api/appointments/schedules/templates/{id}
+     */
+    @DeleteMapping("/templates/{id}")
+    public Result<String> deleteTemplate(@PathVariable @NotNull Long id) {
+        try {
+            if (scheduleService.deleteTemplate(id)) {
+                return Result.success("删除排班模板成功");
+            } else {
+                return Result.error(404, "排班模板不存在");
+            }
+        } catch (Exception e) {
+            log.error("删除排班模板失败, ID: {}", id, e);
+            return Result.error("删除排班模板失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 按排班模板批量生成未来若干周的号源（dryRun=true 时只统计不写入）
+     * POST /api/appointments/schedules/generate
+     */
+    @PostMapping("/generate")
+    public Result<SlotGenerationReport> generateSlots(@RequestBody @Valid SlotGenerationRequest request) {
+        try {
+            SlotGenerationReport report = scheduleService.generateSlots(request);
+            return Result.success(request.isDryRun() ? "号源生成试运行完成" : "号源生成完成", report);
+        } catch (IllegalArgumentException e) {
+            log.warn("生成号源失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("生成号源失败", e);
+            return Result.error("生成号源失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medicalunion.appointment.dto;
+
+import com.medicalunion.common.StoredProcedureResult;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+
+/**
+ * 预约存储过程执行结果
+ * Appointment Result - sp_create_appointment / sp_cancel_appointment 的输出参数
+ *
+ * 结果代码：0 成功，-1 数据库异常，-2 号源或预约不存在，-3 已无号或当前状态不可取消
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class AppointmentResult extends StoredProcedureResult {
+    
+    public static final int DATABASE_ERROR = -1;
+    public static final int NOT_FOUND = -2;
+    public static final int UNAVAILABLE = -3;
+    
+    /**
+     * 预约ID
+     */
+    private Long appointmentId;
+    
+    /**
+     * 取消预约时的退款金额
+     */
+    private BigDecimal refundAmount;
+    
+    public static AppointmentResult of(Integer code, String message, Long appointmentId) {
+        AppointmentResult result = new AppointmentResult();
+        result.setResultCode(code);
+        result.setResultMessage(message);
+        result.setAppointmentId(appointmentId);
+        return result;
+    }
+}
@@ -0,0 +1,57 @@
+package com.medicalunion.appointment.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可预约号源汇总
+ * Availability Grid - 日期 → 科室 → 医生 的剩余号数，只包含有开放号源的日期与科室
+ */
+@Data
+public class AvailabilityGrid {
+    
+    private LocalDate from;
+    
+    private LocalDate to;
+    
+    private List<Day> days = new ArrayList<>();
+    
+    @Data
+    public static class Day {
+        
+        private LocalDate date;
+        
+        private List<Department> departments = new ArrayList<>();
+    }
+    
+    @Data
+    public static class Department {
+        
+        private Long hospitalId;
+        
+        private Long departmentId;
+        
+        /**
+         * 科室当日剩余号数合计
+         */
+        private int remaining;
+        
+        private List<Doctor> doctors = new ArrayList<>();
+    }
+    
+    @Data
+    public static class Doctor {
+        
+        private Long doctorId;
+        
+        private int remaining;
+        
+        /**
+         * 开放的号源（时段）数
+         */
+        private int slots;
+    }
+}
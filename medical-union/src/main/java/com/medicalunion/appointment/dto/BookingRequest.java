@@ -0,0 +1,41 @@
+package com.medicalunion.appointment.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * 预约请求
+ * Booking Request
+ */
+@Data
+public class BookingRequest {
+    
+    @NotNull(message = "号源ID不能为空")
+    private Long slotId;
+    
+    @NotNull(message = "患者ID不能为空")
+    private Long patientId;
+    
+    /**
+     * 发起预约的用户ID
+     */
+    private Long bookingUserId;
+    
+    /**
+     * 以家庭成员身份就诊时的成员ID
+     */
+    private Long familyMemberId;
+    
+    /**
+     * 就诊主诉
+     */
+    private String complaint;
+    
+    private Boolean isInsurance;
+    
+    /**
+     * 来源：WEB/MOBILE/COUNTER，默认 WEB
+     */
+    private String source;
+}
@@ -0,0 +1,67 @@
+package com.medicalunion.appointment.dto;
+
+import lombok.Data;
+
+/**
+ * 排队凭证
+ * Queue Ticket - 预约请求进入号源排队队列后返回，客户端凭 token 轮询预约结果
+ */
+@Data
+public class QueueTicket {
+    
+    /**
+     * 排队中，position 为前方（含自身）等待人数
+     */
+    public static final String QUEUED = "QUEUED";
+    
+    /**
+     * 已出队，正在调用存储过程预约
+     */
+    public static final String PROCESSING = "PROCESSING";
+    
+    /**
+     * 预约成功
+     */
+    public static final String BOOKED = "BOOKED";
+    
+    /**
+     * 号源已约满
+     */
+    public static final String SOLD_OUT = "SOLD_OUT";
+    
+    /**
+     * 排队人数已满，未进入队列
+     */
+    public static final String REJECTED = "REJECTED";
+    
+    /**
+     * 预约失败
+     */
+    public static final String FAILED = "FAILED";
+    
+    public static final String NOT_FOUND = "NOT_FOUND";
+    
+    private String token;
+    
+    private Long slotId;
+    
+    private String status;
+    
+    private Long position;
+    
+    private Long appointmentId;
+    
+    private String message;
+    
+    public static QueueTicket of(String token, Long slotId, String status, Long position,
+                                 Long appointmentId, String message) {
+        QueueTicket ticket = new QueueTicket();
+        ticket.setToken(token);
+        ticket.setSlotId(slotId);
+        ticket.setStatus(status);
+        ticket.setPosition(position);
+        ticket.setAppointmentId(appointmentId);
+        ticket.setMessage(message);
+        return ticket;
+    }
+}
@@ -0,0 +1,48 @@
+package com.medicalunion.appointment.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 号源生成结果
+ * Slot Generation Report
+ */
+@Data
+public class SlotGenerationReport {
+    
+    private LocalDate fromDate;
+    
+    private LocalDate toDate;
+    
+    private boolean dryRun;
+    
+    /**
+     * 参与展开的排班模板数
+     */
+    private int templates;
+    
+    private int doctors;
+    
+    /**
+     * 模板展开后的号源总数
+     */
+    private int planned;
+    
+    /**
+     * 新生成的号源数（试运行时为将生成的数量）
+     */
+    private int created;
+    
+    /**
+     * 已存在而跳过的号源数
+     */
+    private int existing;
+    
+    /**
+     * 展开时因时段无效而跳过的模板数
+     */
+    private int invalidTemplates;
+    
+    private long elapsedMillis;
+}
@@ -0,0 +1,42 @@
+package com.medicalunion.appointment.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 号源生成请求
+ * Slot Generation Request - 把启用的排班模板展开为未来若干周的号源
+ */
+@Data
+public class SlotGenerationRequest {
+    
+    /**
+     * 起始日期（含），默认明天
+     */
+    private LocalDate fromDate;
+    
+    @NotNull(message = "生成周数不能为空")
+    @Min(value = 1, message = "生成周数至少为1")
+    @Max(value = 26, message = "生成周数不能超过26")
+    private Integer weeks;
+    
+    /**
+     * 只为这些医生生成，为空时不按医生过滤
+     */
+    private List<Long> doctorIds;
+    
+    /**
+     * 只为该医院生成，为空时不按医院过滤
+     */
+    private Long hospitalId;
+    
+    /**
+     * 试运行：只统计将生成的号源数，不写入数据库
+     */
+    private boolean dryRun;
+}
@@ -0,0 +1,50 @@
+package com.medicalunion.appointment.dto;
+
+import lombok.Data;
+
+/**
+ * 抢号结果
+ * Ticket Result - 抢号成功先返回票号，预约记录异步写入后可按票号查到预约ID
+ */
+@Data
+public class TicketResult {
+    
+    /**
+     * 已取得号，预约记录待写入
+     */
+    public static final String PENDING = "PENDING";
+    
+    /**
+     * 预约记录已写入
+     */
+    public static final String CONFIRMED = "CONFIRMED";
+    
+    /**
+     * 号源已约满
+     */
+    public static final String SOLD_OUT = "SOLD_OUT";
+    
+    /**
+     * 取得号后写入失败（号源被其他渠道占用或数据错误）
+     */
+    public static final String FAILED = "FAILED";
+    
+    public static final String NOT_FOUND = "NOT_FOUND";
+    
+    private String ticketNumber;
+    
+    private String status;
+    
+    private Long appointmentId;
+    
+    private String message;
+    
+    public static TicketResult of(String ticketNumber, String status, Long appointmentId, String message) {
+        TicketResult result = new TicketResult();
+        result.setTicketNumber(ticketNumber);
+        result.setStatus(status);
+        result.setAppointmentId(appointmentId);
+        result.setMessage(message);
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.medicalunion.appointment.entity;
+
+import com.medicalunion.common.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预约实体类
+ * Appointment Entity
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class Appointment extends BaseEntity {
+    
+    private Long patientId;
+    
+    /**
+     * 发起预约的用户（患者本人或家属账号）
+     */
+    private Long bookingUserId;
+    
+    /**
+     * 以家庭成员身份就诊时的成员ID
+     */
+    private Long familyMemberId;
+    
+    private Long doctorId;
+    
+    private Long hospitalId;
+    
+    private Long departmentId;
+    
+    private Long slotId;
+    
+    /**
+     * 预约类型：普通/专家/特需（取自号源）
+     */
+    private String appointmentType;
+    
+    /**
+     * 就诊时间（号源日期 + 开始时间）
+     */
+    private LocalDateTime visitDatetime;
+    
+    /**
+     * 状态：PENDING/CONFIRMED/CHECKED_IN/COMPLETED/CANCELLED/NO_SHOW
+     */
+    private String status;
+    
+    private String checkinCode;
+    
+    /**
+     * 票号，抢号时先于预约记录生成，用于查询预约结果
+     */
+    private String ticketNumber;
+    
+    /**
+     * 就诊主诉
+     */
+    private String complaint;
+    
+    private Long paymentId;
+    
+    private Boolean isInsurance;
+    
+    /**
+     * 来源：WEB/MOBILE/COUNTER
+     */
+    private String source;
+    
+    private Long createdBy;
+}
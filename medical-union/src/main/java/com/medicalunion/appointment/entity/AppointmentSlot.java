@@ -0,0 +1,57 @@
+package com.medicalunion.appointment.entity;
+
+import com.medicalunion.common.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 号源实体类
+ * Appointment Slot Entity - 医生在某日某时段开放的可预约号源
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class AppointmentSlot extends BaseEntity {
+    
+    private Long doctorId;
+    
+    private Long hospitalId;
+    
+    private Long departmentId;
+    
+    /**
+     * 出诊日期
+     */
+    private LocalDate slotDate;
+    
+    private LocalTime startTime;
+    
+    private LocalTime endTime;
+    
+    /**
+     * 号源类型：普通/专家/特需
+     */
+    private String slotType;
+    
+    /**
+     * 总号数
+     */
+    private Integer capacity;
+    
+    /**
+     * 剩余号数
+     */
+    private Integer remaining;
+    
+    private BigDecimal price;
+    
+    private String currency;
+    
+    /**
+     * 状态：OPEN/CLOSED/PAUSED
+     */
+    private String status;
+}
@@ -0,0 +1,66 @@
+package com.medicalunion.appointment.entity;
+
+import com.medicalunion.common.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalTime;
+
+/**
+ * 排班模板实体类
+ * Schedule Template Entity - 医生每周固定出诊时段，按周展开生成号源
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ScheduleTemplate extends BaseEntity {
+    
+    @NotNull(message = "医生ID不能为空")
+    private Long doctorId;
+    
+    @NotNull(message = "医院ID不能为空")
+    private Long hospitalId;
+    
+    private Long departmentId;
+    
+    /**
+     * 星期几：1 周一 … 7 周日
+     */
+    @NotNull(message = "出诊星期不能为空")
+    @Min(value = 1, message = "出诊星期取值 1-7")
+    @Max(value = 7, message = "出诊星期取值 1-7")
+    private Integer dayOfWeek;
+    
+    @NotNull(message = "开始时间不能为空")
+    private LocalTime startTime;
+    
+    @NotNull(message = "结束时间不能为空")
+    private LocalTime endTime;
+    
+    /**
+     * 每个号源的时长（分钟），为空时整个时段为一个号源
+     */
+    @Min(value = 5, message = "号源时长不能少于5分钟")
+    private Integer slotMinutes;
+    
+    /**
+     * 号别：普通/专家/特需
+     */
+    private String slotType;
+    
+    /**
+     * 每个号源的号数
+     */
+    @NotNull(message = "号数不能为空")
+    @Min(value = 1, message = "号数至少为1")
+    private Integer capacity;
+    
+    private BigDecimal price;
+    
+    private String currency;
+    
+    private Boolean active;
+}
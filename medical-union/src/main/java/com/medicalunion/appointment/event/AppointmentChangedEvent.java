@@ -0,0 +1,32 @@
+package com.medicalunion.appointment.event;
+
+import lombok.Getter;
+
+/**
+ * 预约变更事件
+ * Appointment Changed Event - 预约创建或取消、号源剩余数变化后发布
+ */
+@Getter
+public class AppointmentChangedEvent {
+    
+    /**
+     * 受影响的号源ID
+     */
+    private final Long slotId;
+    
+    /**
+     * 预约ID
+     */
+    private final Long appointmentId;
+    
+    /**
+     * 号源剩余数变化量：预约 -1，取消 +1
+     */
+    private final int remainingDelta;
+    
+    public AppointmentChangedEvent(Long slotId, Long appointmentId, int remainingDelta) {
+        this.slotId = slotId;
+        this.appointmentId = appointmentId;
+        this.remainingDelta = remainingDelta;
+    }
+}
@@ -0,0 +1,28 @@
+package com.medicalunion.appointment.event;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * 号源生成事件
+ * Slots Generated Event - 按排班模板批量生成号源后发布
+ */
+@Getter
+public class SlotsGeneratedEvent {
+    
+    /**
+     * 生成区间起始日期（含）
+     */
+    private final LocalDate fromDate;
+    
+    /**
+     * 生成区间结束日期（含）
+     */
+    private final LocalDate toDate;
+    
+    public SlotsGeneratedEvent(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+}
@@ -0,0 +1,57 @@
+package com.medicalunion.appointment.mapper;
+
+import com.medicalunion.appointment.entity.Appointment;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预约数据访问接口
+ * Appointment Mapper Interface
+ */
+@Mapper
+public interface AppointmentMapper {
+    
+    /**
+     * 根据ID查询预约
+     */
+    Appointment findById(@Param("id") Long id);
+    
+    /**
+     * 根据票号查询预约
+     */
+    Appointment findByTicketNumber(@Param("ticketNumber") String ticketNumber);
+    
+    /**
+     * 插入预约
+     */
+    int insert(Appointment appointment);
+    
+    /**
+     * 批量插入预约（单条多行 INSERT），回填自增ID
+     */
+    int batchInsert(@Param("appointments") List<Appointment> appointments);
+    
+    /**
+     * 取消状态为 CONFIRMED/PENDING 的预约，返回影响行数
+     */
+    int cancelIfActive(@Param("id") Long id);
+    
+    /**
+     * 查询预约已支付金额，无支付记录返回 null
+     */
+    BigDecimal findPaidAmount(@Param("appointmentId") Long appointmentId);
+    
+    /**
+     * 调用存储过程创建预约
+     */
+    void createAppointment(Map<String, Object> params);
+    
+    /**
+     * 调用存储过程取消预约
+     */
+    void cancelAppointment(Map<String, Object> params);
+}
@@ -0,0 +1,59 @@
+package com.medicalunion.appointment.mapper;
+
+import com.medicalunion.appointment.entity.AppointmentSlot;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 号源数据访问接口
+ * Appointment Slot Mapper Interface
+ */
+@Mapper
+public interface AppointmentSlotMapper {
+    
+    /**
+     * 根据ID查询号源
+     */
+    AppointmentSlot findById(@Param("id") Long id);
+    
+    /**
+     * 查询日期区间内（闭区间）开放的号源
+     */
+    List<AppointmentSlot> findOpenBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * 批量查询号源当前剩余号数（仅填充 id、remaining、status）
+     */
+    List<AppointmentSlot> findRemaining(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 扣减剩余号数，剩余不足时不修改并返回 0
+     */
+    int decrementRemaining(@Param("id") Long id, @Param("count") int count);
+    
+    /**
+     * 归还剩余号数（不超过总号数）
+     */
+    int incrementRemaining(@Param("id") Long id, @Param("count") int count);
+    
+    /**
+     * 查询医生在日期区间内已有号源（只含医生、日期、开始时间）
+     */
+    List<AppointmentSlot> findSlotTimes(@Param("doctorIds") Collection<Long> doctorIds,
+                                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * 统计医生在日期区间内的号源数
+     */
+    int countSlots(@Param("doctorIds") Collection<Long> doctorIds,
+                   @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * 批量插入号源，跳过同一医生同一日期开始时间已存在的号源；其他约束错误照常抛出
+     */
+    int batchInsertSkipDuplicates(@Param("slots") List<AppointmentSlot> slots);
+}
@@ -0,0 +1,42 @@
+package com.medicalunion.appointment.mapper;
+
+import com.medicalunion.appointment.entity.ScheduleTemplate;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 排班模板数据访问接口
+ * Schedule Template Mapper Interface
+ */
+@Mapper
+public interface ScheduleTemplateMapper {
+    
+    /**
+     * 根据ID查询排班模板
+     */
+    ScheduleTemplate findById(@Param("id") Long id);
+    
+    /**
+     * 查询医生的排班模板
+     */
+    List<ScheduleTemplate> findByDoctorId(@Param("doctorId") Long doctorId);
+    
+    /**
+     * 查询启用的排班模板，可按医生、医院过滤，按医生排序
+     */
+    List<ScheduleTemplate> findActive(@Param("doctorIds") Collection<Long> doctorIds,
+                                      @Param("hospitalId") Long hospitalId);
+    
+    /**
+     * 批量插入排班模板（单条多行 INSERT），回填自增ID
+     */
+    int batchInsert(@Param("templates") List<ScheduleTemplate> templates);
+    
+    /**
+     * 删除排班模板（已生成的号源不受影响）
+     */
+    int deleteById(@Param("id") Long id);
+}
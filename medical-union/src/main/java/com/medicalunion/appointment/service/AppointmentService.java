@@ -0,0 +1,91 @@
+package com.medicalunion.appointment.service;
+
+import com.medicalunion.appointment.booking.SlotBooker;
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.entity.Appointment;
+import com.medicalunion.appointment.event.AppointmentChangedEvent;
+import com.medicalunion.appointment.mapper.AppointmentMapper;
+import com.medicalunion.audit.service.AuditLogWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * 预约服务
+ * Appointment Service - 创建、取消预约，并记录审计日志、发布预约变更事件
+ *
+ * 号源扣减与预约写入由 {@link SlotBooker} 完成（存储过程或乐观条件更新，按配置选择），
+ * 各实现自行管理事务，这里不再包一层 Spring 事务
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppointmentService {
+    
+    private final AppointmentMapper appointmentMapper;
+    private final SlotBooker slotBooker;
+    private final AuditLogWriter auditLogWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * 根据ID查询预约
+     */
+    public Appointment findById(Long id) {
+        return appointmentMapper.findById(id);
+    }
+    
+    /**
+     * 创建预约
+     *
+     * @param appointmentType 号别（普通/专家/特需），取自号源
+     */
+    public AppointmentResult createAppointment(BookingRequest request, String appointmentType) {
+        try {
+            AppointmentResult result = slotBooker.book(request, appointmentType);
+            
+            log.info("创建预约 - 号源: {}, 患者: {}, 结果: {}, 消息: {}", request.getSlotId(),
+                    request.getPatientId(), result.getResultCode(), result.getResultMessage());
+            if (result.isSuccess()) {
+                auditLogWriter.record(request.getBookingUserId(), "CREATE_APPOINTMENT", "appointments",
+                        result.getAppointmentId(), "Created appointment slot=" + request.getSlotId()
+                                + " appointment=" + result.getAppointmentId());
+                eventPublisher.publishEvent(new AppointmentChangedEvent(request.getSlotId(), result.getAppointmentId(), -1));
+            }
+            return result;
+            
+        } catch (Exception e) {
+            log.error("创建预约异常 - 号源: {}, 错误: {}", request.getSlotId(), e.getMessage());
+            return AppointmentResult.of(AppointmentResult.DATABASE_ERROR, "创建预约异常: " + e.getMessage(), null);
+        }
+    }
+    
+    /**
+     * 取消预约，归还号源
+     */
+    public AppointmentResult cancelAppointment(Long appointmentId, Long requestingUserId) {
+        Appointment appointment = appointmentMapper.findById(appointmentId);
+        if (appointment == null) {
+            return AppointmentResult.of(AppointmentResult.NOT_FOUND, "预约不存在", appointmentId);
+        }
+        
+        try {
+            AppointmentResult result = slotBooker.cancel(appointment, requestingUserId);
+            
+            log.info("取消预约 - ID: {}, 结果: {}, 消息: {}", appointmentId, result.getResultCode(), result.getResultMessage());
+            if (result.isSuccess()) {
+                auditLogWriter.record(requestingUserId, "CANCEL_APPOINTMENT", "appointments", appointmentId,
+                        "Cancelled appointment=" + appointmentId + " refund=" + result.getRefundAmount());
+                if (appointment.getSlotId() != null) {
+                    eventPublisher.publishEvent(new AppointmentChangedEvent(appointment.getSlotId(), appointmentId, 1));
+                }
+            }
+            return result;
+            
+        } catch (Exception e) {
+            log.error("取消预约异常 - ID: {}, 错误: {}", appointmentId, e.getMessage());
+            return AppointmentResult.of(AppointmentResult.DATABASE_ERROR, "取消预约异常: " + e.getMessage(), appointmentId);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.medicalunion.appointment.service;
+
+import com.medicalunion.appointment.dto.SlotGenerationReport;
+import com.medicalunion.appointment.dto.SlotGenerationRequest;
+import com.medicalunion.appointment.entity.AppointmentSlot;
+import com.medicalunion.appointment.entity.ScheduleTemplate;
+import com.medicalunion.appointment.event.SlotsGeneratedEvent;
+import com.medicalunion.appointment.mapper.AppointmentSlotMapper;
+import com.medicalunion.appointment.mapper.ScheduleTemplateMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 排班服务
+ * Schedule Service - 维护医生每周排班模板，并批量展开为号源
+ *
+ * 生成号源时按医生分组处理：先查出该组医生在日期区间内已有的号源，过滤后用多行 INSERT 写入；
+ * appointment_slots 上的唯一键 uk_slot_doctor_time 保证重复生成或并发生成都不会产生重复号源，
+ * 已有号源（含已被预约的）不会被修改。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleService {
+
+    private final ScheduleTemplateMapper templateMapper;
+    private final AppointmentSlotMapper slotMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${appointment.schedule.doctor-chunk-size:200}")
+    private int doctorChunkSize;
+
+    @Value("${appointment.schedule.insert-batch-size:1000}")
+    private int insertBatchSize;
+
+    @Value("${appointment.schedule.max-templates:20000}")
+    private int maxTemplates;
+
+    /**
+     * 查询医生的排班模板
+     */
+    public List<ScheduleTemplate> findTemplatesByDoctorId(Long doctorId) {
+        return templateMapper.findByDoctorId(doctorId);
+    }
+
+    /**
+     * 批量创建排班模板，任一模板不合法时全部不写入
+     */
+    @Transactional
+    public List<ScheduleTemplate> createTemplates(List<ScheduleTemplate> templates) {
+        if (templates == null || templates.isEmpty()) {
+            throw new IllegalArgumentException("排班模板列表不能为空");
+        }
+        if (templates.size() > maxTemplates) {
+            throw new IllegalArgumentException("单次创建排班模板不能超过 " + maxTemplates + " 条");
+        }
+        for (int i = 0; i < templates.size(); i++) {
+            ScheduleTemplate template = templates.get(i);
+            String error = template == null ? "排班模板不能为空" : validateTemplate(template);
+            if (error != null) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 条排班模板不合法: " + error);
+            }
+            template.setId(null);
+        }
+        templateMapper.batchInsert(templates);
+        log.info("创建排班模板 {} 条", templates.size());
+        return templates;
+    }
+
+    /**
+     * 删除排班模板，已生成的号源保留
+     */
+    @Transactional
+    public boolean deleteTemplate(Long id) {
+        return templateMapper.deleteById(id) > 0;
+    }
+
+    /**
+     * 把启用的排班模板展开为 [fromDate, fromDate + weeks) 内的号源
+     */
+    public SlotGenerationReport generateSlots(SlotGenerationRequest request) {
+        long start = System.currentTimeMillis();
+        LocalDate from = request.getFromDate() != null ? request.getFromDate() : LocalDate.now().plusDays(1);
+        LocalDate to = from.plusWeeks(request.getWeeks()).minusDays(1);
+
+        SlotGenerationReport report = new SlotGenerationReport();
+        report.setFromDate(from);
+        report.setToDate(to);
+        report.setDryRun(request.isDryRun());
+
+        Map<Long, List<ScheduleTemplate>> byDoctor = new LinkedHashMap<>();
+        for (ScheduleTemplate template : templateMapper.findActive(request.getDoctorIds(), request.getHospitalId())) {
+            byDoctor.computeIfAbsent(template.getDoctorId(), id -> new ArrayList<>()).add(template);
+            report.setTemplates(report.getTemplates() + 1);
+        }
+        report.setDoctors(byDoctor.size());
+
+        List<Long> doctorIds = new ArrayList<>(byDoctor.keySet());
+        for (int i = 0; i < doctorIds.size(); i += doctorChunkSize) {
+            List<Long> chunk = doctorIds.subList(i, Math.min(doctorIds.size(), i + doctorChunkSize));
+            generateForDoctors(chunk, byDoctor, from, to, report);
+        }
+
+        if (!request.isDryRun() && report.getCreated() > 0) {
+            eventPublisher.publishEvent(new SlotsGeneratedEvent(from, to));
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("生成号源{} - 区间: {} ~ {}, 医生: {}, 模板: {}, 计划: {}, 新增: {}, 已存在: {}, 耗时: {}ms",
+                request.isDryRun() ? "(试运行)" : "", from, to, report.getDoctors(), report.getTemplates(),
+                report.getPlanned(), report.getCreated(), report.getExisting(), report.getElapsedMillis());
+        return report;
+    }
+
+    private void generateForDoctors(List<Long> doctorIds, Map<Long, List<ScheduleTemplate>> byDoctor,
+                                    LocalDate from, LocalDate to, SlotGenerationReport report) {
+        Set<String> taken = new HashSet<>();
+        List<AppointmentSlot> existing = slotMapper.findSlotTimes(doctorIds, from, to);
+        for (AppointmentSlot slot : existing) {
+            taken.add(key(slot.getDoctorId(), slot.getSlotDate(), slot.getStartTime()));
+        }
+
+        List<AppointmentSlot> fresh = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            for (ScheduleTemplate template : byDoctor.get(doctorId)) {
+                List<AppointmentSlot> slots = expand(template, from, to);
+                if (slots == null) {
+                    report.setInvalidTemplates(report.getInvalidTemplates() + 1);
+                    continue;
+                }
+                report.setPlanned(report.getPlanned() + slots.size());
+                for (AppointmentSlot slot : slots) {
+                    // 已有号源或多个模板时段重叠产生的相同开始时间，只保留一个
+                    if (taken.add(key(slot.getDoctorId(), slot.getSlotDate(), slot.getStartTime()))) {
+                        fresh.add(slot);
+                    } else {
+                        report.setExisting(report.getExisting() + 1);
+                    }
+                }
+            }
+        }
+
+        if (report.isDryRun()) {
+            report.setCreated(report.getCreated() + fresh.size());
+            return;
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < fresh.size(); i += insertBatchSize) {
+            // 查询之后被并发生成的号源由唯一键跳过
+            slotMapper.batchInsertSkipDuplicates(fresh.subList(i, Math.min(fresh.size(), i + insertBatchSize)));
+        }
+        // 冲突行也计入影响行数，新增数按写入前后的号源数之差计算
+        int after = slotMapper.countSlots(doctorIds, from, to);
+        int created = Math.max(0, Math.min(fresh.size(), after - existing.size()));
+        report.setCreated(report.getCreated() + created);
+        report.setExisting(report.getExisting() + fresh.size() - created);
+    }
+
+    /**
+     * 按模板展开区间内的号源；模板时段无效时返回 null
+     */
+    private static List<AppointmentSlot> expand(ScheduleTemplate template, LocalDate from, LocalDate to) {
+        int startSecond = template.getStartTime().toSecondOfDay();
+        int endSecond = template.getEndTime().toSecondOfDay();
+        if (endSecond <= startSecond) {
+            return null;
+        }
+        int step = template.getSlotMinutes() != null ? template.getSlotMinutes() * 60 : endSecond - startSecond;
+        if (step <= 0) {
+            return null;
+        }
+
+        List<AppointmentSlot> slots = new ArrayList<>();
+        LocalDate date = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(template.getDayOfWeek())));
+        for (; !date.isAfter(to); date = date.plusWeeks(1)) {
+            for (int second = startSecond; second + step <= endSecond; second += step) {
+                slots.add(toSlot(template, date, LocalTime.ofSecondOfDay(second), LocalTime.ofSecondOfDay(second + step)));
+            }
+        }
+        return slots;
+    }
+
+    private static AppointmentSlot toSlot(ScheduleTemplate template, LocalDate date, LocalTime start, LocalTime end) {
+        AppointmentSlot slot = new AppointmentSlot();
+        slot.setDoctorId(template.getDoctorId());
+        slot.setHospitalId(template.getHospitalId());
+        slot.setDepartmentId(template.getDepartmentId());
+        slot.setSlotDate(date);
+        slot.setStartTime(start);
+        slot.setEndTime(end);
+        slot.setSlotType(template.getSlotType());
+        slot.setCapacity(template.getCapacity());
+        slot.setRemaining(template.getCapacity());
+        slot.setPrice(template.getPrice());
+        slot.setCurrency(template.getCurrency());
+        slot.setStatus("OPEN");
+        return slot;
+    }
+
+    private static String key(Long doctorId, LocalDate date, LocalTime start) {
+        return doctorId + "|" + date + "|" + start.toSecondOfDay();
+    }
+
+    private String validateTemplate(ScheduleTemplate template) {
+        if (template.getSlotType() == null) {
+            template.setSlotType("普通");
+        }
+        if (template.getPrice() == null) {
+            template.setPrice(BigDecimal.ZERO);
+        }
+        if (template.getCurrency() == null) {
+            template.setCurrency("CNY");
+        }
+        if (template.getActive() == null) {
+            template.setActive(Boolean.TRUE);
+        }
+        Set<ConstraintViolation<ScheduleTemplate>> violations = validator.validate(template);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!template.getEndTime().isAfter(template.getStartTime())) {
+            return "结束时间必须晚于开始时间";
+        }
+        return null;
+    }
+}
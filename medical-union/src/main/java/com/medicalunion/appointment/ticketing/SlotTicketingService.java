@@ -0,0 +1,462 @@
+package com.medicalunion.appointment.ticketing;
+
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.dto.TicketResult;
+import com.medicalunion.appointment.entity.Appointment;
+import com.medicalunion.appointment.entity.AppointmentSlot;
+import com.medicalunion.appointment.event.AppointmentChangedEvent;
+import com.medicalunion.appointment.mapper.AppointmentMapper;
+import com.medicalunion.appointment.mapper.AppointmentSlotMapper;
+import com.medicalunion.audit.service.AuditLogWriter;
+import com.medicalunion.common.cache.LocalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 号源抢号服务
+ * Slot Ticketing Service - 放号高峰期的内存抢号，替代 sp_create_appointment 中对号源行的 FOR UPDATE
+ *
+ * - 近 preload-days 天开放的号源启动后预加载为 {@link StripedSlotCounter}，抢号只做无锁 CAS，不访问数据库
+ * - 取得号即返回票号，预约记录进入队列，后台每 flush-interval-ms 批量写入：
+ *   每个号源一次条件扣减（remaining &gt;= n），所有预约一条多行 INSERT
+ * - 对账：定时读取数据库剩余号数，与内存剩余 + 待写入数比较，修正其他渠道（取消、存储过程预约、调整号数）带来的差异；
+ *   并发取号会让单次观察到的差值偏向任一方向：偏小时立即扣减（最多少放号，安全），
+ *   偏大时可能超卖，因此增加号数须连续两轮观察到相同差值才执行
+ * - 每次取号都检查号源开始时间，已开始的号源不再放号；批量写入在独立的单线程调度器上执行，
+ *   不受 Spring 默认单线程调度器上其他任务的影响
+ *
+ * 计数器保存在进程内，同一号源只能由一个实例抢号（单实例部署或按号源分片路由）。
+ */
+@Slf4j
+@Service
+public class SlotTicketingService {
+
+    private final AppointmentSlotMapper slotMapper;
+    private final AppointmentMapper appointmentMapper;
+    private final AuditLogWriter auditLogWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+    private final int preloadDays;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService flusher;
+
+    private final Map<Long, SlotState> slots = new ConcurrentHashMap<>();
+    private final Deque<Appointment> persistQueue = new ConcurrentLinkedDeque<>();
+    private final Map<String, Appointment> pendingTickets = new ConcurrentHashMap<>();
+    private final LocalCache<String, String> failedTickets;
+
+    private final Counter admitted;
+    private final Counter soldOut;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Counter corrections;
+
+    public SlotTicketingService(AppointmentSlotMapper slotMapper,
+                                AppointmentMapper appointmentMapper,
+                                AuditLogWriter auditLogWriter,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${appointment.ticketing.stripes:8}") int stripes,
+                                @Value("${appointment.ticketing.preload-days:7}") int preloadDays,
+                                @Value("${appointment.ticketing.batch-size:500}") int batchSize,
+                                @Value("${appointment.ticketing.flush-interval-ms:100}") long flushIntervalMillis,
+                                @Value("${appointment.ticketing.failed-ticket-ttl-ms:3600000}") long failedTicketTtlMillis) {
+        this.slotMapper = slotMapper;
+        this.appointmentMapper = appointmentMapper;
+        this.auditLogWriter = auditLogWriter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = stripes;
+        this.preloadDays = preloadDays;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ticket-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.failedTickets = new LocalCache<>(failedTicketTtlMillis, 100_000);
+
+        this.admitted = counter(meterRegistry, "admitted");
+        this.soldOut = counter(meterRegistry, "sold_out");
+        this.persisted = counter(meterRegistry, "persisted");
+        this.failed = counter(meterRegistry, "failed");
+        this.corrections = Counter.builder("appointment.ticketing.corrections")
+                .description("对账修正次数")
+                .register(meterRegistry);
+        Gauge.builder("appointment.tickets.pending", pendingTickets, Map::size)
+                .description("已取号待写入的预约数")
+                .register(meterRegistry);
+        Gauge.builder("appointment.ticketing.slots", slots, Map::size)
+                .description("已加载到内存的号源数")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("appointment.tickets")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // 未捕获的异常会终止后续调度
+                log.error("预约批量写入失败", e);
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 抢号：成功返回 PENDING 票号，约满返回 SOLD_OUT
+     */
+    public TicketResult acquire(BookingRequest request) {
+        SlotState state = slots.get(request.getSlotId());
+        if (state == null) {
+            state = load(request.getSlotId());
+        }
+        if (state == null || state.closed) {
+            throw new IllegalArgumentException("号源不存在或未开放");
+        }
+        if (!state.startsAt.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("号源已过就诊时间");
+        }
+        if (!state.counter.tryAcquire()) {
+            soldOut.increment();
+            return TicketResult.of(null, TicketResult.SOLD_OUT, null, "号源已约满");
+        }
+        state.pending.incrementAndGet();
+
+        String ticketNumber = UUID.randomUUID().toString().replace("-", "");
+        Appointment appointment = toAppointment(state.slot, request, ticketNumber);
+        pendingTickets.put(ticketNumber, appointment);
+        persistQueue.add(appointment);
+        admitted.increment();
+        return TicketResult.of(ticketNumber, TicketResult.PENDING, null, "已取号，预约确认中");
+    }
+
+    /**
+     * 按票号查询抢号结果
+     */
+    public TicketResult findTicket(String ticketNumber) {
+        if (pendingTickets.containsKey(ticketNumber)) {
+            return TicketResult.of(ticketNumber, TicketResult.PENDING, null, "预约确认中");
+        }
+        String reason = failedTickets.get(ticketNumber);
+        if (reason != null) {
+            return TicketResult.of(ticketNumber, TicketResult.FAILED, null, reason);
+        }
+        Appointment appointment = appointmentMapper.findByTicketNumber(ticketNumber);
+        if (appointment != null) {
+            return TicketResult.of(ticketNumber, TicketResult.CONFIRMED, appointment.getId(), appointment.getStatus());
+        }
+        return TicketResult.of(ticketNumber, TicketResult.NOT_FOUND, null, "票号不存在");
+    }
+
+    /**
+     * 未预加载的号源按需加载（例如预加载范围之外的日期）
+     */
+    private SlotState load(Long slotId) {
+        return slots.computeIfAbsent(slotId, id -> {
+            AppointmentSlot slot = slotMapper.findById(id);
+            if (slot == null || !"OPEN".equals(slot.getStatus()) || slot.getSlotDate().isBefore(LocalDate.now())) {
+                return null;
+            }
+            return new SlotState(slot, stripes);
+        });
+    }
+
+    /**
+     * 预加载近期开放的号源，并移除已开始且无待写入预约的号源
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${appointment.ticketing.preload-interval-ms:300000}",
+            fixedDelayString = "${appointment.ticketing.preload-interval-ms:300000}")
+    public void preload() {
+        LocalDate today = LocalDate.now();
+        int loaded = 0;
+        for (AppointmentSlot slot : slotMapper.findOpenBetween(today, today.plusDays(preloadDays))) {
+            if (slots.putIfAbsent(slot.getId(), new SlotState(slot, stripes)) == null) {
+                loaded++;
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        slots.values().removeIf(state -> !state.startsAt.isAfter(now) && state.pending.get() == 0);
+        log.info("号源预加载完成，新增 {} 个，内存中共 {} 个", loaded, slots.size());
+    }
+
+    /**
+     * 批量写入已取号的预约；数据库不可用时放回队首，下次重试
+     */
+    synchronized void flush() {
+        List<Appointment> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Appointment appointment;
+            while (batch.size() < batchSize && (appointment = persistQueue.poll()) != null) {
+                batch.add(appointment);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (!persist(batch)) {
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    persistQueue.addFirst(batch.get(i));
+                }
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private boolean persist(List<Appointment> batch) {
+        Map<Long, List<Appointment>> bySlot = new LinkedHashMap<>();
+        for (Appointment appointment : batch) {
+            bySlot.computeIfAbsent(appointment.getSlotId(), id -> new ArrayList<>()).add(appointment);
+        }
+
+        PersistOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> write(bySlot));
+        } catch (RuntimeException e) {
+            log.warn("预约批量写入失败，{} 条稍后重试: {}", batch.size(), e.getMessage());
+            return false;
+        }
+
+        for (Appointment appointment : outcome.inserted) {
+            complete(appointment);
+            persisted.increment();
+            auditLogWriter.record(appointment.getBookingUserId(), "CREATE_APPOINTMENT", "appointments",
+                    appointment.getId(), "Created appointment slot=" + appointment.getSlotId()
+                            + " appointment=" + appointment.getId() + " ticket=" + appointment.getTicketNumber());
+            eventPublisher.publishEvent(new AppointmentChangedEvent(appointment.getSlotId(), appointment.getId(), -1));
+        }
+        for (Appointment appointment : outcome.noCapacity) {
+            // 数据库中已无号（被其他渠道占用），内存计数偏多，由对账修正，不归还
+            fail(appointment, "号源已被占用，预约失败");
+        }
+        for (Appointment appointment : outcome.writeFailed) {
+            fail(appointment, "预约写入失败");
+            SlotState state = slots.get(appointment.getSlotId());
+            if (state != null) {
+                state.counter.release();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 事务内：按号源条件扣减，再一条多行 INSERT；多行 INSERT 失败时逐条写入定位失败项并归还其号数；
+     * 死锁等瞬时异常会回滚整个事务，直接抛出，由 flush 把整批放回队首
+     */
+    private PersistOutcome write(Map<Long, List<Appointment>> bySlot) {
+        PersistOutcome outcome = new PersistOutcome();
+        List<Appointment> accepted = new ArrayList<>();
+        for (Map.Entry<Long, List<Appointment>> entry : bySlot.entrySet()) {
+            List<Appointment> group = entry.getValue();
+            int take = group.size();
+            if (slotMapper.decrementRemaining(entry.getKey(), take) == 0) {
+                AppointmentSlot current = slotMapper.findById(entry.getKey());
+                int remaining = current == null || current.getRemaining() == null ? 0 : current.getRemaining();
+                take = Math.max(0, Math.min(take, remaining));
+                if (take > 0 && slotMapper.decrementRemaining(entry.getKey(), take) == 0) {
+                    take = 0;
+                }
+            }
+            accepted.addAll(group.subList(0, take));
+            outcome.noCapacity.addAll(group.subList(take, group.size()));
+        }
+        if (accepted.isEmpty()) {
+            return outcome;
+        }
+
+        try {
+            appointmentMapper.batchInsert(accepted);
+            outcome.inserted.addAll(accepted);
+        } catch (TransientDataAccessException e) {
+            // 死锁会回滚整个事务（含上面的扣减），不能在本事务内继续逐条写入；抛出后整批放回队首重试
+            throw e;
+        } catch (DataAccessException e) {
+            log.warn("预约多行写入失败，逐条重试 {} 条: {}", accepted.size(), e.getMessage());
+            Map<Long, Integer> refunds = new HashMap<>();
+            for (Appointment appointment : accepted) {
+                appointment.setId(null);
+                try {
+                    appointmentMapper.insert(appointment);
+                    outcome.inserted.add(appointment);
+                } catch (TransientDataAccessException rowError) {
+                    throw rowError;
+                } catch (DataAccessException rowError) {
+                    log.warn("预约写入失败, 票号: {}, 错误: {}", appointment.getTicketNumber(), rowError.getMessage());
+                    outcome.writeFailed.add(appointment);
+                    refunds.merge(appointment.getSlotId(), 1, Integer::sum);
+                }
+            }
+            refunds.forEach(slotMapper::incrementRemaining);
+        }
+        return outcome;
+    }
+
+    private void complete(Appointment appointment) {
+        pendingTickets.remove(appointment.getTicketNumber());
+        SlotState state = slots.get(appointment.getSlotId());
+        if (state != null) {
+            state.pending.decrementAndGet();
+        }
+    }
+
+    private void fail(Appointment appointment, String reason) {
+        failedTickets.put(appointment.getTicketNumber(), reason);
+        complete(appointment);
+        failed.increment();
+    }
+
+    /**
+     * 对账：数据库剩余号数 = 内存剩余号数 + 已取号待写入数
+     * 与 flush 互斥，执行期间没有写入中的批次
+     */
+    @Scheduled(initialDelayString = "${appointment.ticketing.reconcile-interval-ms:30000}",
+            fixedDelayString = "${appointment.ticketing.reconcile-interval-ms:30000}")
+    public synchronized void reconcile() {
+        List<Long> ids = new ArrayList<>(slots.keySet());
+        for (int from = 0; from < ids.size(); from += 1000) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + 1000));
+            Map<Long, AppointmentSlot> rows = new HashMap<>();
+            for (AppointmentSlot row : slotMapper.findRemaining(chunk)) {
+                rows.put(row.getId(), row);
+            }
+            for (Long id : chunk) {
+                SlotState state = slots.get(id);
+                if (state != null) {
+                    reconcile(state, rows.get(id));
+                }
+            }
+        }
+    }
+
+    private void reconcile(SlotState state, AppointmentSlot row) {
+        if (row == null || !"OPEN".equals(row.getStatus())) {
+            state.closed = true;
+            state.counter.adjust(-state.counter.available());
+            return;
+        }
+        state.closed = false;
+        // 与 flush 互斥，但取号不加锁，两种并发都会让差值失真：
+        // - 读内存剩余与读待写入数之间有人取号：待写入数多计一个，差值偏小，立即扣减只会少放号；
+        // - 取号线程已 tryAcquire 但尚未 pending.incrementAndGet：内存剩余已少、待写入数未加，差值偏大，
+        //   直接补号会超卖，只能靠下面「连续两轮差值相同才增加」的规则排除
+        int available = state.counter.available();
+        int pending = state.pending.get();
+        int delta = row.getRemaining() - pending - available;
+        if (delta < 0) {
+            state.counter.adjust(delta);
+            state.unconfirmedDelta = 0;
+            corrections.increment();
+            log.info("号源对账减少 {} 个号, slotId: {}", -delta, row.getId());
+        } else if (delta > 0 && delta == state.unconfirmedDelta) {
+            state.counter.adjust(delta);
+            state.unconfirmedDelta = 0;
+            corrections.increment();
+            log.info("号源对账增加 {} 个号, slotId: {}", delta, row.getId());
+        } else {
+            state.unconfirmedDelta = delta;
+        }
+    }
+
+    /**
+     * 关闭前写出已取号的预约
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+        if (!persistQueue.isEmpty()) {
+            log.error("关闭时仍有 {} 个已取号预约未能写入", persistQueue.size());
+        }
+    }
+
+    private static Appointment toAppointment(AppointmentSlot slot, BookingRequest request, String ticketNumber) {
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(request.getPatientId());
+        appointment.setBookingUserId(request.getBookingUserId());
+        appointment.setFamilyMemberId(request.getFamilyMemberId());
+        appointment.setDoctorId(slot.getDoctorId());
+        appointment.setHospitalId(slot.getHospitalId());
+        appointment.setDepartmentId(slot.getDepartmentId());
+        appointment.setSlotId(slot.getId());
+        appointment.setAppointmentType(slot.getSlotType());
+        appointment.setVisitDatetime(LocalDateTime.of(slot.getSlotDate(), slot.getStartTime()));
+        appointment.setStatus("CONFIRMED");
+        appointment.setTicketNumber(ticketNumber);
+        appointment.setComplaint(request.getComplaint());
+        appointment.setIsInsurance(Boolean.TRUE.equals(request.getIsInsurance()));
+        appointment.setSource(request.getSource() == null ? "WEB" : request.getSource());
+        appointment.setCreatedBy(request.getBookingUserId());
+        return appointment;
+    }
+
+    private static final class SlotState {
+        private final AppointmentSlot slot;
+        private final LocalDateTime startsAt;
+        private final StripedSlotCounter counter;
+
+        /**
+         * 已取号但尚未写入数据库的预约数
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean closed;
+
+        /**
+         * 上一轮对账观察到的待确认正差值（仅对账线程访问）
+         */
+        private int unconfirmedDelta;
+
+        private SlotState(AppointmentSlot slot, int stripes) {
+            this.slot = slot;
+            this.startsAt = LocalDateTime.of(slot.getSlotDate(), slot.getStartTime());
+            this.counter = new StripedSlotCounter(slot.getRemaining() == null ? 0 : slot.getRemaining(), stripes);
+        }
+    }
+
+    private static final class PersistOutcome {
+        private final List<Appointment> inserted = new ArrayList<>();
+        private final List<Appointment> noCapacity = new ArrayList<>();
+        private final List<Appointment> writeFailed = new ArrayList<>();
+    }
+}
@@ -0,0 +1,88 @@
+package com.medicalunion.appointment.ticketing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 分段号源计数器
+ * Striped Slot Counter - 把一个号源的剩余号数分散到多个原子计数段，抢号时各线程从不同段 CAS 扣减
+ *
+ * 热门号源放号时大量线程争抢同一个计数器，单个 AtomicInteger 的 CAS 会反复失败重试；
+ * 分段后线程先尝试自己的段，该段为 0 时再依次尝试其他段，任何时候都不会超卖。
+ * 各段之间间隔 {@link #PADDING} 个 int，避免位于同一缓存行。
+ */
+public class StripedSlotCounter {
+
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+
+    /**
+     * @param initial 初始剩余号数
+     * @param stripes 最大分段数（实际不超过 initial，至少 1 段）
+     */
+    public StripedSlotCounter(int initial, int stripes) {
+        this.stripes = Math.max(1, Math.min(stripes, Math.max(initial, 1)));
+        this.cells = new AtomicIntegerArray(this.stripes * PADDING);
+        int base = Math.max(initial, 0) / this.stripes;
+        int extra = Math.max(initial, 0) % this.stripes;
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PADDING, base + (i < extra ? 1 : 0));
+        }
+    }
+
+    /**
+     * 尝试取一个号，成功返回 true；所有段都为 0 时返回 false
+     */
+    public boolean tryAcquire() {
+        int start = probe();
+        for (int n = 0; n < stripes; n++) {
+            int index = ((start + n) % stripes) * PADDING;
+            int current;
+            while ((current = cells.get(index)) > 0) {
+                if (cells.compareAndSet(index, current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 归还一个号
+     */
+    public void release() {
+        cells.incrementAndGet(probe() * PADDING);
+    }
+
+    /**
+     * 按差值调整剩余号数：正数直接加入，负数尽量扣除，返回实际调整量
+     */
+    public int adjust(int delta) {
+        if (delta > 0) {
+            cells.addAndGet(probe() * PADDING, delta);
+            return delta;
+        }
+        int removed = 0;
+        while (removed < -delta && tryAcquire()) {
+            removed++;
+        }
+        return -removed;
+    }
+
+    /**
+     * 当前剩余号数（各段之和，并发下为近似值）
+     */
+    public int available() {
+        int sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private int probe() {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+}
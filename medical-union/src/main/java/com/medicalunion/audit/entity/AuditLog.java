@@ -0,0 +1,47 @@
+package com.medicalunion.audit.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志实体类
+ * Audit Log Entity - 对应 audit_logs 表
+ */
+@Data
+public class AuditLog {
+    
+    private Long id;
+    
+    /**
+     * 操作用户ID（系统操作为空）
+     */
+    private Long userId;
+    
+    /**
+     * 操作类型，例如 CREATE_PATIENT
+     */
+    private String action;
+    
+    private String targetTable;
+    
+    private Long targetId;
+    
+    private String details;
+    
+    /**
+     * 操作发生时间（记录时取值，异步写入不改变该时间）
+     */
+    private LocalDateTime createdAt;
+    
+    public static AuditLog of(Long userId, String action, String targetTable, Long targetId, String details) {
+        AuditLog log = new AuditLog();
+        log.setUserId(userId);
+        log.setAction(action);
+        log.setTargetTable(targetTable);
+        log.setTargetId(targetId);
+        log.setDetails(details);
+        log.setCreatedAt(LocalDateTime.now());
+        return log;
+    }
+}
@@ -0,0 +1,20 @@
+package com.medicalunion.audit.mapper;
+
+import com.medicalunion.audit.entity.AuditLog;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 审计日志数据访问接口
+ * Audit Log Mapper Interface
+ */
+@Mapper
+public interface AuditLogMapper {
+    
+    /**
+     * 批量插入审计日志（单条多行 INSERT）
+     */
+    int batchInsert(@Param("logs") List<AuditLog> logs);
+}
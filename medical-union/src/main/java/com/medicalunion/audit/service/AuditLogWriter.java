@@ -0,0 +1,291 @@
+package com.medicalunion.audit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalunion.audit.entity.AuditLog;
+import com.medicalunion.audit.mapper.AuditLogMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 审计日志异步写入器
+ * Audit Log Writer - 业务方只把审计日志放入内存环形缓冲，后台定时批量写入 audit_logs
+ *
+ * - 在事务中记录时，事务提交后才进入缓冲，回滚的操作不产生审计日志
+ * - 缓冲已满时不阻塞业务线程，直接追加到本地溢写文件（每次写入 fsync）
+ * - 批量写库失败的日志同样写入溢写文件，定时重放回数据库
+ * - 关闭时先写出缓冲中的日志；进程崩溃时最多丢失缓冲中尚未写出的一个刷新周期内的日志
+ *
+ * 指标：audit.buffer.size / audit.buffer.remaining（背压）、
+ * audit.records{outcome=enqueued|written|overflow|spilled|replayed|dropped}、audit.flush
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private final AuditLogMapper auditLogMapper;
+    private final ObjectMapper objectMapper;
+    private final ArrayBlockingQueue<AuditLog> buffer;
+    private final int batchSize;
+    private final Path spillFile;
+    private final Path replayFile;
+
+    /**
+     * 溢写文件的追加与轮转互斥
+     */
+    private final Object spillLock = new Object();
+
+    private final Counter enqueued;
+    private final Counter written;
+    private final Counter overflow;
+    private final Counter spilled;
+    private final Counter replayed;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public AuditLogWriter(AuditLogMapper auditLogMapper,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit.buffer-capacity:65536}") int capacity,
+                          @Value("${audit.batch-size:500}") int batchSize,
+                          @Value("${audit.spill-file:data/audit-spill.ndjson}") String spillFile) {
+        this.auditLogMapper = auditLogMapper;
+        this.objectMapper = objectMapper;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.spillFile = Paths.get(spillFile).toAbsolutePath();
+        this.replayFile = Paths.get(spillFile + ".replay").toAbsolutePath();
+
+        Gauge.builder("audit.buffer.size", buffer, ArrayBlockingQueue::size)
+                .description("审计缓冲中待写入的日志数")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.remaining", buffer, ArrayBlockingQueue::remainingCapacity)
+                .description("审计缓冲剩余容量")
+                .register(meterRegistry);
+        this.enqueued = counter(meterRegistry, "enqueued", "进入缓冲的日志数");
+        this.written = counter(meterRegistry, "written", "批量写入数据库的日志数");
+        this.overflow = counter(meterRegistry, "overflow", "缓冲已满直接溢写的日志数");
+        this.spilled = counter(meterRegistry, "spilled", "写入溢写文件的日志数");
+        this.replayed = counter(meterRegistry, "replayed", "从溢写文件重放入库的日志数");
+        this.dropped = counter(meterRegistry, "dropped", "溢写失败而丢弃的日志数");
+        this.flushTimer = Timer.builder("audit.flush")
+                .description("单批审计日志写库耗时")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome, String description) {
+        return Counter.builder("audit.records")
+                .tag("outcome", outcome)
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * 记录审计日志；当前线程有活动事务时在提交后才进入缓冲
+     */
+    public void record(AuditLog auditLog) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(auditLog);
+                }
+            });
+        } else {
+            enqueue(auditLog);
+        }
+    }
+
+    public void record(Long userId, String action, String targetTable, Long targetId, String details) {
+        record(AuditLog.of(userId, action, targetTable, targetId, details));
+    }
+
+    private void enqueue(AuditLog auditLog) {
+        if (buffer.offer(auditLog)) {
+            enqueued.increment();
+        } else {
+            overflow.increment();
+            spill(Collections.singletonList(auditLog));
+        }
+    }
+
+    /**
+     * 定时批量写出缓冲中的日志
+     */
+    @Scheduled(fixedDelayString = "${audit.flush-interval-ms:200}")
+    public void flush() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        try {
+            flushTimer.record(() -> auditLogMapper.batchInsert(batch));
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("审计日志批量写入失败，{} 条转入溢写文件: {}", batch.size(), e.getMessage());
+            spill(batch);
+        }
+    }
+
+    /**
+     * 追加到溢写文件并落盘
+     */
+    private void spill(List<AuditLog> logs) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (AuditLog auditLog : logs) {
+                lines.append(objectMapper.writeValueAsString(auditLog)).append('\n');
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            synchronized (spillLock) {
+                Path dir = spillFile.getParent();
+                if (dir != null) {
+                    Files.createDirectories(dir);
+                }
+                try (FileChannel channel = FileChannel.open(spillFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    channel.force(false);
+                }
+            }
+            spilled.increment(logs.size());
+        } catch (IOException e) {
+            dropped.increment(logs.size());
+            log.error("审计日志溢写失败，丢弃 {} 条: {} {}", logs.size(), e.getMessage(), lines);
+        }
+    }
+
+    /**
+     * 定时把溢写文件重放回数据库
+     * 先把溢写文件轮转为 .replay 文件，重放期间新的溢写写入新文件；重放中途失败时未写入部分保留到下次
+     */
+    @Scheduled(initialDelayString = "${audit.replay-interval-ms:30000}",
+            fixedDelayString = "${audit.replay-interval-ms:30000}")
+    public synchronized void replaySpilled() {
+        try {
+            synchronized (spillLock) {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            replay();
+        } catch (IOException e) {
+            log.warn("审计日志溢写文件重放失败: {}", e.getMessage());
+        }
+    }
+
+    private void replay() throws IOException {
+        Path remaining = Paths.get(replayFile + ".tmp");
+        boolean interrupted = false;
+        long total = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            List<String> lines = new ArrayList<>(batchSize);
+            boolean eof = false;
+            while (!eof) {
+                lines.clear();
+                String line;
+                while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        lines.add(line);
+                    }
+                }
+                eof = lines.size() < batchSize;
+                if (lines.isEmpty()) {
+                    break;
+                }
+                List<AuditLog> batch = parse(lines);
+                try {
+                    if (!batch.isEmpty()) {
+                        auditLogMapper.batchInsert(batch);
+                    }
+                } catch (RuntimeException e) {
+                    writeRemaining(remaining, lines, reader);
+                    interrupted = true;
+                    log.warn("审计日志重放中断，已重放 {} 条，剩余部分下次重试: {}", total, e.getMessage());
+                    break;
+                }
+                total += batch.size();
+                replayed.increment(batch.size());
+            }
+        }
+        if (interrupted) {
+            Files.move(remaining, replayFile, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        Files.delete(replayFile);
+        log.info("审计日志溢写文件重放完成，共 {} 条", total);
+    }
+
+    private List<AuditLog> parse(List<String> lines) {
+        List<AuditLog> logs = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                logs.add(objectMapper.readValue(line, AuditLog.class));
+            } catch (IOException e) {
+                // 崩溃时可能留下写了一半的最后一行
+                dropped.increment();
+                log.warn("跳过无法解析的溢写行: {}", line);
+            }
+        }
+        return logs;
+    }
+
+    /**
+     * 把当前批次及其后的所有行写入临时文件，读取结束后替换 .replay 文件
+     */
+    private void writeRemaining(Path target, List<String> lines, BufferedReader reader) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (String pending : lines) {
+                out.write(pending);
+                out.newLine();
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * 关闭前写出缓冲中的全部日志（写库失败则溢写）
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        log.info("审计日志写入器已关闭");
+    }
+}
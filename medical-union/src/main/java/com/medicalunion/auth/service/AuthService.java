@@ -4,13 +4,16 @@ import com.medicalunion.auth.dto.LoginRequest;
 import com.medicalunion.auth.dto.LoginResponse;
 import com.medicalunion.auth.entity.User;
 import com.medicalunion.auth.mapper.UserMapper;
+import com.medicalunion.auth.session.SessionStore;
 import com.medicalunion.patient.entity.Patient;
 import com.medicalunion.patient.mapper.PatientMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -29,8 +32,13 @@ public class AuthService {
     // TODO: 添加DoctorMapper依赖
     // private final DoctorMapper doctorMapper;
     
-    // 简单的内存token存储，实际生产环境应使用Redis或JWT
-    private final Map<String, User> tokenStore = new HashMap<>();
+    private final SessionStore sessionStore;
+    
+    /**
+     * 会话有效期(秒)
+     */
+    @Value("${auth.session.ttl-seconds:3600}")
+    private long sessionTtlSeconds;
     
     /**
      * 用户登录
@@ -62,7 +70,7 @@ public class AuthService {
         
         // 生成token
         String token = generateToken();
-        tokenStore.put(token, user);
+        sessionStore.save(token, user, Duration.ofSeconds(sessionTtlSeconds));
         
         // 构建响应
         LoginResponse response = new LoginResponse();
@@ -71,7 +79,7 @@ public class AuthService {
         response.setRefId(user.getRefId());
         response.setUsername(user.getUsername());
         response.setStatus(user.getStatus());
-        response.setExpiresIn(3600L); // 1小时过期
+        response.setExpiresIn(sessionTtlSeconds);
         
         // 根据用户类型获取详细信息
         Object userDetails = getUserDetails(user);
@@ -87,7 +95,7 @@ public class AuthService {
      * 用户登出
      */
     public void logout(String token) {
-        tokenStore.remove(token);
+        sessionStore.remove(token);
         log.info("用户登出: token={}", token);
     }
     
@@ -95,7 +103,7 @@ public class AuthService {
      * 验证token
      */
     public User validateToken(String token) {
-        return tokenStore.get(token);
+        return sessionStore.find(token);
     }
     
     /**
@@ -0,0 +1,111 @@
+package com.medicalunion.auth.session;
+
+import com.medicalunion.auth.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 进程内会话存储
+ * In-Memory Session Store - 线程安全、惰性过期、容量有界
+ *
+ * 读取时判断过期；另按创建顺序记录 token，定期从队首清理过期会话。
+ * 会话数超过上限时淘汰最早创建的会话。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.session.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySessionStore implements SessionStore {
+    
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Queue<String> creationOrder = new ConcurrentLinkedQueue<>();
+    private final int maxSessions;
+    
+    public InMemorySessionStore(@Value("${auth.session.max-size:100000}") int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+    
+    @Override
+    public void save(String token, User user, Duration ttl) {
+        sessions.put(token, new Session(user, System.currentTimeMillis() + ttl.toMillis()));
+        creationOrder.offer(token);
+        while (sessions.size() > maxSessions) {
+            String eldest = creationOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            if (sessions.remove(eldest) != null) {
+                log.warn("会话数超过上限 {}，淘汰最早的会话", maxSessions);
+            }
+        }
+    }
+    
+    @Override
+    public User find(String token) {
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(System.currentTimeMillis())) {
+            sessions.remove(token, session);
+            return null;
+        }
+        return session.user;
+    }
+    
+    @Override
+    public void remove(String token) {
+        sessions.remove(token);
+    }
+    
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+    
+    /**
+     * 定期清理过期会话
+     * 已登出的 token 仍留在队列中，轮到时直接丢弃
+     */
+    @Scheduled(fixedDelayString = "${auth.session.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        String token;
+        while ((token = creationOrder.peek()) != null) {
+            Session session = sessions.get(token);
+            if (session != null && !session.isExpired(now)) {
+                break;
+            }
+            creationOrder.poll();
+            if (session != null && sessions.remove(token, session)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("清理过期会话 {} 个，剩余 {} 个", removed, sessions.size());
+        }
+    }
+    
+    private static final class Session {
+        private final User user;
+        private final long expireAt;
+        
+        private Session(User user, long expireAt) {
+            this.user = user;
+            this.expireAt = expireAt;
+        }
+        
+        private boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+    }
+}
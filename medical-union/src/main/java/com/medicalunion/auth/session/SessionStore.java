@@ -0,0 +1,39 @@
+package com.medicalunion.auth.session;
+
+import com.medicalunion.auth.entity.User;
+
+import java.time.Duration;
+
+/**
+ * 会话存储接口
+ * Session Store - token 到登录用户的映射
+ *
+ * 默认实现为进程内存储 {@link InMemorySessionStore}；多节点部署时可提供
+ * 文件或 Redis 兼容的实现，并设置 auth.session.store 为其他值以禁用默认实现。
+ */
+public interface SessionStore {
+    
+    /**
+     * 保存会话
+     *
+     * @param token 访问令牌
+     * @param user  登录用户
+     * @param ttl   会话有效期
+     */
+    void save(String token, User user, Duration ttl);
+    
+    /**
+     * 查询会话，不存在或已过期返回 null
+     */
+    User find(String token);
+    
+    /**
+     * 删除会话
+     */
+    void remove(String token);
+    
+    /**
+     * 当前会话数
+     */
+    int size();
+}
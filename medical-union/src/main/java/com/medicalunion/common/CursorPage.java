@@ -0,0 +1,47 @@
+package com.medicalunion.common;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * Cursor Page - 键集分页的返回载荷
+ *
+ * @param <T> 列表元素类型
+ */
+@Data
+public class CursorPage<T> {
+
+    /**
+     * 当前页数据
+     */
+    private List<T> items;
+
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 由多查询一行的结果构造分页：rows 最多包含 pageSize + 1 行，
+     * 多出的一行仅用于判断是否还有下一页
+     */
+    public static <T extends BaseEntity> CursorPage<T> of(List<T> rows, int pageSize) {
+        CursorPage<T> page = new CursorPage<>();
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = hasMore ? rows.subList(0, pageSize) : rows;
+        page.setItems(items);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            KeysetCursor cursor = KeysetCursor.of(items.get(items.size() - 1));
+            page.setNextCursor(cursor == null ? null : cursor.encode());
+        }
+        return page;
+    }
+}
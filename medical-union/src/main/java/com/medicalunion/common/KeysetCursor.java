@@ -0,0 +1,71 @@
+package com.medicalunion.common;
+
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * Keyset Cursor - 基于 (created_at, id) 的不透明分页游标
+ *
+ * 游标记录上一页最后一行的排序键，下一页通过
+ * {@code created_at < ? OR (created_at = ? AND id < ?)} 直接定位，
+ * 避免 OFFSET 分页扫描并丢弃前面所有行。
+ */
+@Data
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 上一页最后一行的创建时间
+     */
+    private final LocalDateTime createdAt;
+
+    /**
+     * 上一页最后一行的主键ID
+     */
+    private final Long id;
+
+    /**
+     * 编码为 URL 安全的不透明字符串
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串，空值表示从第一页开始
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx <= 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, idx)),
+                    Long.valueOf(raw.substring(idx + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 根据行的排序键构造游标，排序键缺失时返回 null
+     */
+    public static KeysetCursor of(BaseEntity entity) {
+        if (entity == null || entity.getCreatedAt() == null || entity.getId() == null) {
+            return null;
+        }
+        return new KeysetCursor(entity.getCreatedAt(), entity.getId());
+    }
+}
@@ -0,0 +1,193 @@
+package com.medicalunion.common.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 本地缓存
+ * Local Cache - 带过期时间与容量上限的进程内缓存
+ *
+ * 过期采用惰性检查（读取时判断），容量超限时按最近最少使用淘汰。
+ * 加载期间若发生失效，加载结果不会写回缓存，避免失效后又缓存旧值。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalCache<K, V> {
+    
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    /**
+     * 失效代数，每次失效递增
+     */
+    private long generation;
+    
+    /**
+     * @param ttlMillis 条目存活时间(毫秒)
+     * @param maxSize   最大条目数
+     */
+    public LocalCache(long ttlMillis, int maxSize) {
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("缓存过期时间和容量必须大于0");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * 读取缓存，未命中或已过期返回 null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expireAt - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses.increment();
+        return null;
+    }
+    
+    /**
+     * 读取缓存，未命中时调用 loader 加载并写入缓存（loader 返回 null 时不缓存）
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, loader, value -> true);
+    }
+    
+    /**
+     * 读取缓存，未命中时调用 loader 加载，仅当 cacheable 判定通过时写入缓存
+     */
+    public V get(K key, Function<? super K, ? extends V> loader, Predicate<? super V> cacheable) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null && cacheable.test(value)) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * 写入缓存
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+    
+    /**
+     * 使单个键失效
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+    
+    /**
+     * 使全部条目失效
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+    
+    /**
+     * 清理已过期条目，返回清理数量
+     */
+    public synchronized int purgeExpired() {
+        long now = System.nanoTime();
+        int removed = 0;
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expireAt - now <= 0) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public long hitCount() {
+        return hits.sum();
+    }
+    
+    public long missCount() {
+        return misses.sum();
+    }
+    
+    public long evictionCount() {
+        return evictions.sum();
+    }
+    
+    /**
+     * 注册缓存指标（cache.gets / cache.evictions / cache.size），
+     * 可通过 /actuator/metrics/cache.gets?tag=cache:{name} 查看
+     */
+    public LocalCache<K, V> registerMetrics(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.gets", this, LocalCache::hitCount)
+                .tag("cache", cacheName).tag("result", "hit")
+                .description("缓存命中次数")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, LocalCache::missCount)
+                .tag("cache", cacheName).tag("result", "miss")
+                .description("缓存未命中次数")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, LocalCache::evictionCount)
+                .tag("cache", cacheName)
+                .description("容量超限淘汰次数")
+                .register(registry);
+        Gauge.builder("cache.size", this, LocalCache::size)
+                .tag("cache", cacheName)
+                .description("当前缓存条目数")
+                .register(registry);
+        return this;
+    }
+    
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+        
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medicalunion.hospital.config;
+
+import com.medicalunion.hospital.event.ReferenceDataChangedEvent;
+import com.medicalunion.hospital.mapper.DepartmentMapper;
+import com.medicalunion.hospital.mapper.HospitalMapper;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 参考数据写入拦截器
+ * Reference Data Change Interceptor - HospitalMapper / DepartmentMapper 的写语句执行后发布变更事件，
+ * 无论调用方是谁，名称缓存都能在事务提交后刷新
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class ReferenceDataChangeInterceptor implements Interceptor {
+    
+    private static final String HOSPITAL_NAMESPACE = HospitalMapper.class.getName() + ".";
+    private static final String DEPARTMENT_NAMESPACE = DepartmentMapper.class.getName() + ".";
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String statementId = ((MappedStatement) invocation.getArgs()[0]).getId();
+        if (statementId.startsWith(HOSPITAL_NAMESPACE) || statementId.startsWith(DEPARTMENT_NAMESPACE)) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(statementId));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package com.medicalunion.hospital.dto;
+
+import lombok.Data;
+
+/**
+ * ID-名称对
+ * Name Entry - 名称缓存加载使用的最小投影
+ */
+@Data
+public class NameEntry {
+    
+    /**
+     * 主键ID
+     */
+    private Long id;
+    
+    /**
+     * 名称
+     */
+    private String name;
+}
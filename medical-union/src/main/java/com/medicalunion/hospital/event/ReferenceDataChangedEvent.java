@@ -0,0 +1,20 @@
+package com.medicalunion.hospital.event;
+
+import lombok.Getter;
+
+/**
+ * 参考数据变更事件
+ * Reference Data Changed Event - 医院或科室写入后发布
+ */
+@Getter
+public class ReferenceDataChangedEvent {
+    
+    /**
+     * 发生变更的 Mapper 语句ID，例如 com.medicalunion.hospital.mapper.HospitalMapper.update
+     */
+    private final String statementId;
+    
+    public ReferenceDataChangedEvent(String statementId) {
+        this.statementId = statementId;
+    }
+}
@@ -44,6 +44,11 @@ public interface HospitalMapper {
      */
     int update(Hospital hospital);
     
+    /**
+     * 删除医院
+     */
+    int deleteById(@Param("id") Long id);
+    
     /**
      * 查询医院的所有科室
      */
@@ -0,0 +1,34 @@
+package com.medicalunion.hospital.mapper;
+
+import com.medicalunion.hospital.dto.NameEntry;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 参考数据名称查询接口
+ * Reference Name Mapper - 医院、科室、医生的 ID 与名称，供名称缓存加载
+ */
+@Mapper
+public interface ReferenceNameMapper {
+    
+    @Select("SELECT id, name FROM hospitals")
+    List<NameEntry> findHospitalNames();
+    
+    @Select("SELECT id, name FROM departments")
+    List<NameEntry> findDepartmentNames();
+    
+    @Select("SELECT id, name FROM doctors")
+    List<NameEntry> findDoctorNames();
+    
+    @Select("SELECT name FROM hospitals WHERE id = #{id}")
+    String findHospitalName(@Param("id") Long id);
+    
+    @Select("SELECT name FROM departments WHERE id = #{id}")
+    String findDepartmentName(@Param("id") Long id);
+    
+    @Select("SELECT name FROM doctors WHERE id = #{id}")
+    String findDoctorName(@Param("id") Long id);
+}
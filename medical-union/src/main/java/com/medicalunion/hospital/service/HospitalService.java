@@ -0,0 +1,230 @@
+package com.medicalunion.hospital.service;
+
+import com.medicalunion.common.cache.LocalCache;
+import com.medicalunion.hospital.entity.Department;
+import com.medicalunion.hospital.entity.Hospital;
+import com.medicalunion.hospital.event.ReferenceDataChangedEvent;
+import com.medicalunion.hospital.mapper.DepartmentMapper;
+import com.medicalunion.hospital.mapper.HospitalMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 医院/科室服务
+ * Hospital Service - 医院、科室参考数据的读穿透缓存
+ *
+ * 单条按 ID 缓存，列表按查询条件缓存（全部、按等级、按医院、按类型）；启动完成后预热。
+ * 写入经 {@link ReferenceDataChangedEvent} 在事务提交后失效：医院变更同时失效科室缓存（科室携带医院名称）。
+ * 命中率等指标通过 /actuator/metrics/cache.gets?tag=cache:hospitals（departments 同理）查看
+ */
+@Slf4j
+@Service
+public class HospitalService {
+    
+    private static final String ALL = "all";
+    private static final String LEVEL_PREFIX = "level:";
+    private static final String HOSPITAL_PREFIX = "hospital:";
+    private static final String TYPE_PREFIX = "type:";
+    
+    private final HospitalMapper hospitalMapper;
+    private final DepartmentMapper departmentMapper;
+    
+    private final LocalCache<Long, Hospital> hospitalById;
+    private final LocalCache<String, List<Hospital>> hospitalLists;
+    private final LocalCache<Long, Department> departmentById;
+    private final LocalCache<String, List<Department>> departmentLists;
+    
+    public HospitalService(HospitalMapper hospitalMapper,
+                           DepartmentMapper departmentMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${reference.cache.ttl-ms:600000}") long ttlMillis,
+                           @Value("${reference.cache.max-size:10000}") int maxSize) {
+        this.hospitalMapper = hospitalMapper;
+        this.departmentMapper = departmentMapper;
+        this.hospitalById = new LocalCache<Long, Hospital>(ttlMillis, maxSize)
+                .registerMetrics(meterRegistry, "hospitals");
+        this.hospitalLists = new LocalCache<String, List<Hospital>>(ttlMillis, maxSize)
+                .registerMetrics(meterRegistry, "hospitalLists");
+        this.departmentById = new LocalCache<Long, Department>(ttlMillis, maxSize)
+                .registerMetrics(meterRegistry, "departments");
+        this.departmentLists = new LocalCache<String, List<Department>>(ttlMillis, maxSize)
+                .registerMetrics(meterRegistry, "departmentLists");
+    }
+    
+    /**
+     * 查询所有医院
+     */
+    public List<Hospital> findAllHospitals() {
+        return hospitalLists.get(ALL, key -> Collections.unmodifiableList(hospitalMapper.findAll()));
+    }
+    
+    /**
+     * 根据ID查询医院，不存在返回 null（不缓存）
+     */
+    public Hospital findHospitalById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return hospitalById.get(id, hospitalMapper::findById);
+    }
+    
+    /**
+     * 根据医院等级查询
+     */
+    public List<Hospital> findHospitalsByLevel(String hospitalLevel) {
+        if (hospitalLevel == null || hospitalLevel.trim().isEmpty()) {
+            throw new IllegalArgumentException("医院等级不能为空");
+        }
+        return hospitalLists.get(LEVEL_PREFIX + hospitalLevel,
+                key -> Collections.unmodifiableList(hospitalMapper.findByLevel(hospitalLevel)));
+    }
+    
+    /**
+     * 根据ID查询科室，不存在返回 null（不缓存）
+     */
+    public Department findDepartmentById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return departmentById.get(id, departmentMapper::findById);
+    }
+    
+    /**
+     * 根据医院ID查询科室
+     */
+    public List<Department> findDepartmentsByHospitalId(Long hospitalId) {
+        if (hospitalId == null) {
+            throw new IllegalArgumentException("医院ID不能为空");
+        }
+        return departmentLists.get(HOSPITAL_PREFIX + hospitalId,
+                key -> Collections.unmodifiableList(departmentMapper.findByHospitalId(hospitalId)));
+    }
+    
+    /**
+     * 根据科室类型查询
+     */
+    public List<Department> findDepartmentsByType(String departmentType) {
+        if (departmentType == null || departmentType.trim().isEmpty()) {
+            throw new IllegalArgumentException("科室类型不能为空");
+        }
+        return departmentLists.get(TYPE_PREFIX + departmentType,
+                key -> Collections.unmodifiableList(departmentMapper.findByType(departmentType)));
+    }
+    
+    /**
+     * 创建医院
+     */
+    @Transactional
+    public Hospital createHospital(Hospital hospital) {
+        hospitalMapper.insert(hospital);
+        log.info("医院创建成功, ID: {}", hospital.getId());
+        return hospital;
+    }
+    
+    /**
+     * 更新医院信息
+     */
+    @Transactional
+    public boolean updateHospital(Hospital hospital) {
+        return hospitalMapper.update(hospital) > 0;
+    }
+    
+    /**
+     * 删除医院
+     */
+    @Transactional
+    public boolean deleteHospital(Long id) {
+        return hospitalMapper.deleteById(id) > 0;
+    }
+    
+    /**
+     * 创建科室
+     */
+    @Transactional
+    public Department createDepartment(Department department) {
+        departmentMapper.insert(department);
+        log.info("科室创建成功, ID: {}", department.getId());
+        return department;
+    }
+    
+    /**
+     * 更新科室信息
+     */
+    @Transactional
+    public boolean updateDepartment(Department department) {
+        return departmentMapper.update(department) > 0;
+    }
+    
+    /**
+     * 删除科室
+     */
+    @Transactional
+    public boolean deleteDepartment(Long id) {
+        return departmentMapper.deleteById(id) > 0;
+    }
+    
+    /**
+     * 启动完成后预热：全部医院、按ID医院、按ID科室及按医院/类型的科室列表
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Hospital> hospitals = hospitalMapper.findAll();
+        List<Department> departments = departmentMapper.findAll();
+        
+        hospitalLists.put(ALL, Collections.unmodifiableList(hospitals));
+        Map<String, List<Department>> grouped = new LinkedHashMap<>();
+        for (Hospital hospital : hospitals) {
+            hospitalById.put(hospital.getId(), hospital);
+            grouped.put(HOSPITAL_PREFIX + hospital.getId(), new ArrayList<>());
+        }
+        for (Department department : departments) {
+            departmentById.put(department.getId(), department);
+            grouped.computeIfAbsent(HOSPITAL_PREFIX + department.getHospitalId(), key -> new ArrayList<>())
+                    .add(department);
+            if (department.getDepartmentType() != null) {
+                grouped.computeIfAbsent(TYPE_PREFIX + department.getDepartmentType(), key -> new ArrayList<>())
+                        .add(department);
+            }
+        }
+        grouped.forEach((key, list) -> departmentLists.put(key, Collections.unmodifiableList(list)));
+        log.info("参考数据缓存预热完成: 医院 {} 个, 科室 {} 个", hospitals.size(), departments.size());
+    }
+    
+    /**
+     * 医院或科室写入提交后失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.getStatementId().startsWith(HospitalMapper.class.getName() + ".")) {
+            hospitalById.invalidateAll();
+            hospitalLists.invalidateAll();
+        }
+        departmentById.invalidateAll();
+        departmentLists.invalidateAll();
+        log.debug("参考数据变更，失效医院/科室缓存: {}", event.getStatementId());
+    }
+    
+    /**
+     * 定期清理过期条目
+     */
+    @Scheduled(fixedDelayString = "${reference.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        hospitalById.purgeExpired();
+        hospitalLists.purgeExpired();
+        departmentById.purgeExpired();
+        departmentLists.purgeExpired();
+    }
+}
@@ -0,0 +1,99 @@
+package com.medicalunion.hospital.service;
+
+import com.medicalunion.hospital.dto.NameEntry;
+import com.medicalunion.hospital.event.ReferenceDataChangedEvent;
+import com.medicalunion.hospital.mapper.ReferenceNameMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 参考数据名称缓存
+ * Reference Name Cache - 医院、科室、医生的 ID -> 名称，替代查询中的名称关联
+ *
+ * 启动时全量加载；医院/科室写入提交后全量重载；医生无写入入口，依赖定时重载；
+ * 未命中的 ID 单条查询后补入缓存；查不到的 ID（悬空引用、已删除）记为 {@link #MISSING}，下次重载前不再查询。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceNameCache {
+    
+    /**
+     * 不存在的 ID 的占位值，按引用比较
+     */
+    private static final String MISSING = new String("");
+    
+    private final ReferenceNameMapper referenceNameMapper;
+    
+    private volatile Map<Long, String> hospitalNames = new ConcurrentHashMap<>();
+    private volatile Map<Long, String> departmentNames = new ConcurrentHashMap<>();
+    private volatile Map<Long, String> doctorNames = new ConcurrentHashMap<>();
+    
+    /**
+     * 全量重载（启动完成后及定时执行）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reference.names.refresh-interval-ms:300000}",
+            initialDelayString = "${reference.names.refresh-interval-ms:300000}")
+    public void reload() {
+        hospitalNames = toMap(referenceNameMapper.findHospitalNames());
+        departmentNames = toMap(referenceNameMapper.findDepartmentNames());
+        doctorNames = toMap(referenceNameMapper.findDoctorNames());
+        log.debug("名称缓存已加载: 医院 {} 个, 科室 {} 个, 医生 {} 个",
+                hospitalNames.size(), departmentNames.size(), doctorNames.size());
+    }
+    
+    /**
+     * 医院或科室写入提交后重载
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        log.debug("参考数据变更，重载名称缓存: {}", event.getStatementId());
+        reload();
+    }
+    
+    public String hospitalName(Long id) {
+        return lookup(hospitalNames, id, referenceNameMapper::findHospitalName);
+    }
+    
+    public String departmentName(Long id) {
+        return lookup(departmentNames, id, referenceNameMapper::findDepartmentName);
+    }
+    
+    public String doctorName(Long id) {
+        return lookup(doctorNames, id, referenceNameMapper::findDoctorName);
+    }
+    
+    private static String lookup(Map<Long, String> names, Long id, Function<Long, String> loader) {
+        if (id == null) {
+            return null;
+        }
+        String name = names.get(id);
+        if (name == null) {
+            name = loader.apply(id);
+            names.put(id, name != null ? name : MISSING);
+            return name;
+        }
+        return name == MISSING ? null : name;
+    }
+    
+    private static Map<Long, String> toMap(List<NameEntry> entries) {
+        Map<Long, String> map = new ConcurrentHashMap<>(Math.max(16, entries.size() * 2));
+        for (NameEntry entry : entries) {
+            if (entry.getId() != null && entry.getName() != null) {
+                map.put(entry.getId(), entry.getName());
+            }
+        }
+        return map;
+    }
+}
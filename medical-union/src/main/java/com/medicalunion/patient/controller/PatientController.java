@@ -1,18 +1,29 @@
 package com.medicalunion.patient.controller;
 
+import com.medicalunion.common.CursorPage;
 import com.medicalunion.common.Result;
 import com.medicalunion.common.StoredProcedureResult;
+import com.medicalunion.patient.dto.PatientImportReport;
+import com.medicalunion.patient.dto.PatientSuggestion;
 import com.medicalunion.patient.entity.Patient;
+import com.medicalunion.patient.importer.PatientImportFormat;
+import com.medicalunion.patient.service.PatientImportService;
 import com.medicalunion.patient.service.PatientService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import com.medicalunion.patient.dto.UpdatePatientRequest;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -26,7 +37,10 @@ import java.util.List;
 @Validated
 public class PatientController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
     
     /**
      * 查询所有患者
@@ -43,6 +57,20 @@ public class PatientController {
         }
     }
     
+    /**
+     * 流式导出所有患者（NDJSON，每行一个患者）
+     * GET /api/patients/export
+     * 导出在异步线程中执行，超大表导出需相应调大 spring.mvc.async.request-timeout
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportPatients() {
+        StreamingResponseBody body = out -> patientService.exportAll(out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=patients.ndjson")
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
     /**
      * 根据ID查询患者
      * GET /api/patients/{id}
@@ -82,20 +110,23 @@ public class PatientController {
     }
     
     /**
-     * 分页查询患者
-     * GET /api/patients/page?pageNum=1&pageSize=10
+     * 游标分页查询患者
+     * GET /api/patients/page?pageSize=10&after={nextCursor}
      */
     @GetMapping("/page")
-    public Result<List<Patient>> getPatientsByPage(
-            @RequestParam(defaultValue = "1") int pageNum,
+    public Result<CursorPage<Patient>> getPatientsByPage(
+            @RequestParam(required = false) String after,
             @RequestParam(defaultValue = "10") int pageSize) {
         try {
-            if (pageNum < 1 || pageSize < 1) {
-                return Result.error("页码和页面大小必须大于0");
+            if (pageSize < 1 || pageSize > 200) {
+                return Result.error("页面大小必须在1到200之间");
             }
             
-            List<Patient> patients = patientService.findByPage(pageNum, pageSize);
-            return Result.success("分页查询患者成功", patients);
+            CursorPage<Patient> page = patientService.findPage(after, pageSize);
+            return Result.success("分页查询患者成功", page);
+        } catch (IllegalArgumentException e) {
+            log.warn("分页查询患者失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
         } catch (Exception e) {
             log.error("分页查询患者失败", e);
             return Result.error("分页查询失败: " + e.getMessage());
@@ -103,16 +134,46 @@ public class PatientController {
     }
     
     /**
-     * 根据姓名模糊查询患者
-     * GET /api/patients/search?name=张
+     * 检索患者（姓名、拼音首字母、手机尾号、医保卡号）
+     * GET /api/patients/search?q=张&limit=20
+     * 兼容旧参数 name
      */
     @GetMapping("/search")
-    public Result<List<Patient>> searchPatientsByName(@RequestParam @NotBlank String name) {
+    public Result<List<Patient>> searchPatients(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        String keyword = q != null ? q : name;
+        try {
+            if (keyword == null || keyword.isBlank()) {
+                return Result.error(400, "检索关键字不能为空");
+            }
+            if (limit < 1 || limit > 100) {
+                return Result.error(400, "返回条数必须在1到100之间");
+            }
+            List<Patient> patients = patientService.search(keyword, limit);
+            return Result.success("检索患者成功", patients);
+        } catch (Exception e) {
+            log.error("检索患者失败, 关键字: {}", keyword, e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 患者输入联想（姓名或拼音首字母前缀）
+     * GET /api/patients/suggest?prefix=zh&limit=10
+     */
+    @GetMapping("/suggest")
+    public Result<List<PatientSuggestion>> suggestPatients(
+            @RequestParam @NotBlank String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
         try {
-            List<Patient> patients = patientService.findByNameLike(name);
-            return Result.success("根据姓名查询患者成功", patients);
+            if (limit < 1 || limit > 20) {
+                return Result.error(400, "返回条数必须在1到20之间");
+            }
+            return Result.success("查询联想结果成功", patientService.suggest(prefix, limit));
         } catch (Exception e) {
-            log.error("根据姓名查询患者失败, 姓名: {}", name, e);
+            log.error("查询患者联想失败, 前缀: {}", prefix, e);
             return Result.error("查询失败: " + e.getMessage());
         }
     }
@@ -135,6 +196,35 @@ public class PatientController {
         }
     }
     
+    /**
+     * 批量导入患者（CSV 首行为表头；NDJSON 每行一个患者）
+     * POST /api/patients/import  multipart: file, format=csv|ndjson（缺省按文件扩展名判断）
+     * 上传大小受 spring.servlet.multipart.max-file-size / max-request-size 限制
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<PatientImportReport> importPatients(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) {
+        try {
+            if (file.isEmpty()) {
+                return Result.error(400, "导入文件不能为空");
+            }
+            PatientImportFormat importFormat = PatientImportFormat.resolve(format, file.getOriginalFilename());
+            try (InputStream in = file.getInputStream()) {
+                PatientImportReport report = patientImportService.importPatients(in, importFormat);
+                return Result.success(report.isTruncated()
+                        ? "导入患者部分完成：超过单次导入行数上限，只处理了前 " + report.getTotal() + " 行"
+                        : "导入患者完成", report);
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("导入患者失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("导入患者失败", e);
+            return Result.error("导入患者失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 更新患者信息（调用存储过程）
      * PUT /api/patients/{id}
@@ -0,0 +1,96 @@
+package com.medicalunion.patient.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 患者批量导入结果
+ * Patient Import Report - 汇总计数与逐行结果
+ */
+@Data
+public class PatientImportReport {
+    
+    public static final String CREATED = "CREATED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String INVALID = "INVALID";
+    public static final String FAILED = "FAILED";
+    
+    /**
+     * 数据总行数
+     */
+    private int total;
+    
+    private int created;
+    
+    /**
+     * 身份证号重复（文件内或数据库中已存在）
+     */
+    private int duplicates;
+    
+    /**
+     * 格式或校验不通过
+     */
+    private int invalid;
+    
+    /**
+     * 写入数据库失败
+     */
+    private int failed;
+    
+    private long elapsedMs;
+    
+    /**
+     * 超过单次导入上限后停止读取，之后的行未处理；已处理的行照常写入并列在 rows 中
+     */
+    private boolean truncated;
+    
+    /**
+     * 逐行结果，按行号排序
+     */
+    private List<RowResult> rows = new ArrayList<>();
+    
+    public void add(int row, String status, Long patientId, String message) {
+        rows.add(new RowResult(row, status, patientId, message));
+        switch (status) {
+            case CREATED:
+                created++;
+                break;
+            case DUPLICATE:
+                duplicates++;
+                break;
+            case INVALID:
+                invalid++;
+                break;
+            default:
+                failed++;
+        }
+    }
+    
+    public void sortRows() {
+        rows.sort(Comparator.comparingInt(RowResult::getRow));
+    }
+    
+    /**
+     * 单行导入结果
+     */
+    @Data
+    public static class RowResult {
+        
+        /**
+         * 数据行号（从 1 开始，不含表头）
+         */
+        private final int row;
+        
+        /**
+         * CREATED / DUPLICATE / INVALID / FAILED
+         */
+        private final String status;
+        
+        private final Long patientId;
+        
+        private final String message;
+    }
+}
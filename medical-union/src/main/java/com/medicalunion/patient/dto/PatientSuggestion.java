@@ -0,0 +1,55 @@
+package com.medicalunion.patient.dto;
+
+import com.medicalunion.patient.entity.Patient;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 患者输入提示项
+ * Patient Suggestion - 联想输入使用的轻量投影，不携带完整患者信息
+ */
+@Data
+public class PatientSuggestion {
+    
+    /**
+     * 患者ID
+     */
+    private Long id;
+    
+    /**
+     * 患者姓名
+     */
+    private String name;
+    
+    /**
+     * 脱敏身份证号，仅保留前 3 位和后 4 位
+     */
+    private String maskedIdCard;
+    
+    /**
+     * 最近就诊时间
+     */
+    private LocalDateTime lastVisitAt;
+    
+    public static PatientSuggestion of(Patient patient) {
+        PatientSuggestion suggestion = new PatientSuggestion();
+        suggestion.setId(patient.getId());
+        suggestion.setName(patient.getName());
+        suggestion.setMaskedIdCard(maskIdCard(patient.getIdCard()));
+        return suggestion;
+    }
+    
+    static String maskIdCard(String idCard) {
+        if (idCard == null || idCard.length() <= 7) {
+            return idCard;
+        }
+        StringBuilder sb = new StringBuilder(idCard.length());
+        sb.append(idCard, 0, 3);
+        for (int i = 3; i < idCard.length() - 4; i++) {
+            sb.append('*');
+        }
+        sb.append(idCard, idCard.length() - 4, idCard.length());
+        return sb.toString();
+    }
+}
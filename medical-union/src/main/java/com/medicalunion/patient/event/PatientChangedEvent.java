@@ -0,0 +1,20 @@
+package com.medicalunion.patient.event;
+
+import lombok.Getter;
+
+/**
+ * 患者变更事件
+ * Patient Changed Event - 创建、更新或删除患者后发布
+ */
+@Getter
+public class PatientChangedEvent {
+    
+    /**
+     * 患者ID
+     */
+    private final Long patientId;
+    
+    public PatientChangedEvent(Long patientId) {
+        this.patientId = patientId;
+    }
+}
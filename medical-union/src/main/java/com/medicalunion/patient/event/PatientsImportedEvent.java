@@ -0,0 +1,22 @@
+package com.medicalunion.patient.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 患者批量导入事件
+ * Patients Imported Event - 每个导入批次提交后发布一次，代替逐个 {@link PatientChangedEvent}
+ */
+@Getter
+public class PatientsImportedEvent {
+    
+    /**
+     * 本批次新建的患者ID
+     */
+    private final List<Long> patientIds;
+    
+    public PatientsImportedEvent(List<Long> patientIds) {
+        this.patientIds = patientIds;
+    }
+}
@@ -0,0 +1,181 @@
+package com.medicalunion.patient.importer;
+
+import com.medicalunion.patient.entity.Patient;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * CSV 患者读取器
+ * CSV Patient Reader - 首行为表头，按列名映射到患者字段
+ *
+ * 列名不区分大小写，下划线与驼峰等价（id_card / idCard），也接受中文列名（姓名、身份证号等）；
+ * 未识别的列忽略。字段支持双引号包裹，引号内可包含逗号、换行，"" 表示一个引号。
+ */
+public class CsvPatientReader implements PatientRecordReader {
+    
+    private static final Map<String, BiConsumer<Patient, String>> COLUMNS = new HashMap<>();
+    
+    static {
+        column(Patient::setName, "name", "姓名");
+        column(Patient::setIdCard, "idcard", "身份证号");
+        column(Patient::setGender, "gender", "性别");
+        column((p, v) -> p.setBirthDate(LocalDate.parse(v)), "birthdate", "出生日期");
+        column(Patient::setPhone, "phone", "联系电话");
+        column(Patient::setAddress, "address", "联系地址");
+        column(Patient::setMedicalCardNo, "medicalcardno", "医保卡号");
+        column((p, v) -> p.setHospitalId(Long.valueOf(v)), "hospitalid", "所属医院id");
+        column((p, v) -> p.setDepartmentId(Long.valueOf(v)), "departmentid", "所属科室id");
+        column(Patient::setEmergencyContact, "emergencycontact", "紧急联系人");
+        column(Patient::setEmergencyPhone, "emergencyphone", "紧急联系人电话");
+        column(Patient::setSeverityLevel, "severitylevel", "病情严重度");
+    }
+    
+    private static void column(BiConsumer<Patient, String> setter, String... names) {
+        for (String name : names) {
+            COLUMNS.put(name, setter);
+        }
+    }
+    
+    private final Reader reader;
+    private final List<String> header;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private int rowNumber;
+    /**
+     * 回读的一个字符，-2 表示没有
+     */
+    private int pending = -2;
+    private boolean started;
+    
+    /**
+     * @param reader 调用方负责缓冲（BufferedReader），逐字符读取
+     */
+    public CsvPatientReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IllegalArgumentException("CSV文件为空");
+        }
+        this.header = new ArrayList<>(names.size());
+        for (String name : names) {
+            this.header.add(normalizeColumn(name));
+        }
+        if (!header.contains("name") && !header.contains("姓名")) {
+            throw new IllegalArgumentException("CSV表头缺少 name 列");
+        }
+    }
+    
+    @Override
+    public ParsedRow next() throws IOException {
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+        
+        rowNumber++;
+        if (values.size() > header.size()) {
+            return ParsedRow.error(rowNumber, "列数超过表头: " + values.size() + " > " + header.size());
+        }
+        Patient patient = new Patient();
+        for (int i = 0; i < values.size(); i++) {
+            BiConsumer<Patient, String> setter = COLUMNS.get(header.get(i));
+            String value = values.get(i).trim();
+            if (setter == null || value.isEmpty()) {
+                continue;
+            }
+            try {
+                setter.accept(patient, value);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return ParsedRow.error(rowNumber, "字段 " + header.get(i) + " 格式错误: " + value);
+            }
+        }
+        return ParsedRow.of(rowNumber, patient);
+    }
+    
+    /**
+     * 读取一条记录（可能跨多行），文件结束返回 null
+     */
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("CSV第 " + (rowNumber + 1) + " 行引号未闭合");
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') {
+                        pending = n;
+                    }
+                }
+                fields.add(field.toString());
+                return new ArrayList<>(fields);
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+    
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        int c = reader.read();
+        // 跳过文件开头的 UTF-8 BOM
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+    
+    private static String normalizeColumn(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.medicalunion.patient.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalunion.patient.entity.Patient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * NDJSON 患者读取器
+ * NDJSON Patient Reader - 每行一个 JSON 对象，空行跳过
+ */
+public class NdjsonPatientReader implements PatientRecordReader {
+    
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private int rowNumber;
+    
+    public NdjsonPatientReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public ParsedRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+        
+        rowNumber++;
+        try {
+            Patient patient = objectMapper.readValue(line, Patient.class);
+            // 导入只创建新患者，忽略文件中携带的 ID 与时间戳
+            patient.setId(null);
+            patient.setCreatedAt(null);
+            patient.setUpdatedAt(null);
+            return ParsedRow.of(rowNumber, patient);
+        } catch (JsonProcessingException e) {
+            return ParsedRow.error(rowNumber, "JSON格式错误: " + e.getOriginalMessage());
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
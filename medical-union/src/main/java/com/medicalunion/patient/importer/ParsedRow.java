@@ -0,0 +1,35 @@
+package com.medicalunion.patient.importer;
+
+import com.medicalunion.patient.entity.Patient;
+import lombok.Getter;
+
+/**
+ * 导入文件中解析出的一行
+ * Parsed Row - 解析成功时携带患者，失败时携带错误信息
+ */
+@Getter
+public class ParsedRow {
+    
+    /**
+     * 数据行号（从 1 开始，不含表头）
+     */
+    private final int rowNumber;
+    
+    private final Patient patient;
+    
+    private final String error;
+    
+    private ParsedRow(int rowNumber, Patient patient, String error) {
+        this.rowNumber = rowNumber;
+        this.patient = patient;
+        this.error = error;
+    }
+    
+    public static ParsedRow of(int rowNumber, Patient patient) {
+        return new ParsedRow(rowNumber, patient, null);
+    }
+    
+    public static ParsedRow error(int rowNumber, String error) {
+        return new ParsedRow(rowNumber, null, error);
+    }
+}
@@ -0,0 +1,42 @@
+package com.medicalunion.patient.importer;
+
+import java.util.Locale;
+
+/**
+ * 患者导入文件格式
+ * Patient Import Format
+ */
+public enum PatientImportFormat {
+    
+    /**
+     * 逗号分隔，首行为表头
+     */
+    CSV,
+    
+    /**
+     * 每行一个 JSON 对象（与 /patients/export 输出一致）
+     */
+    NDJSON;
+    
+    /**
+     * 按显式格式参数或文件扩展名确定格式
+     */
+    public static PatientImportFormat resolve(String format, String filename) {
+        String value = format;
+        if (value == null || value.trim().isEmpty()) {
+            if (filename == null || filename.lastIndexOf('.') < 0) {
+                throw new IllegalArgumentException("无法识别导入文件格式，请指定 format=csv 或 format=ndjson");
+            }
+            value = filename.substring(filename.lastIndexOf('.') + 1);
+        }
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return CSV;
+            case "ndjson":
+            case "jsonl":
+                return NDJSON;
+            default:
+                throw new IllegalArgumentException("不支持的导入文件格式: " + value);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.medicalunion.patient.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 患者导入记录读取器
+ * Patient Record Reader - 逐行读取导入文件，不把整个文件读入内存
+ */
+public interface PatientRecordReader extends Closeable {
+    
+    /**
+     * 读取下一行，文件结束返回 null；单行格式错误不抛异常，以 {@link ParsedRow#error} 返回
+     */
+    ParsedRow next() throws IOException;
+}
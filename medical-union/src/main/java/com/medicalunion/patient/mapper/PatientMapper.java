@@ -1,8 +1,12 @@
 package com.medicalunion.patient.mapper;
 
+import com.medicalunion.patient.dto.PatientSuggestion;
 import com.medicalunion.patient.entity.Patient;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +22,11 @@ public interface PatientMapper {
      */
     List<Patient> findAll();
     
+    /**
+     * 流式查询所有患者（逐行读取，需在事务内消费）
+     */
+    Cursor<Patient> streamAll();
+    
     /**
      * 根据ID查询患者
      */
@@ -29,14 +38,32 @@ public interface PatientMapper {
     Patient findByIdCard(@Param("idCard") String idCard);
     
     /**
-     * 分页查询患者
+     * 批量查询患者
+     */
+    List<Patient> findByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 返回给定身份证号中已存在于数据库的部分
      */
-    List<Patient> findByPage(@Param("offset") int offset, @Param("limit") int limit);
+    List<String> findExistingIdCards(@Param("idCards") Collection<String> idCards);
+    
+    /**
+     * 键集分页查询患者，按 (created_at, id) 倒序定位到游标之后
+     * createdAt/id 为空时从第一页开始
+     */
+    List<Patient> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                @Param("limit") int limit);
     
     /**
      * 根据姓名模糊查询患者
      */
     List<Patient> findByNameLike(@Param("name") String name);
+    
+    /**
+     * 批量查询患者最近就诊时间（仅填充 id 与 lastVisitAt）
+     */
+    List<PatientSuggestion> findLastVisitTimes(@Param("patientIds") Collection<Long> patientIds);
 
     /**
      * 调用存储过程安全创建患者
@@ -54,6 +81,11 @@ public interface PatientMapper {
      */
     void safeDeletePatient(Map<String, Object> params);
     
+    /**
+     * 批量插入患者（单条多行 INSERT），回填自增ID
+     */
+    int batchInsert(@Param("patients") List<Patient> patients);
+    
     /**
      * 统计患者总数
      */
@@ -0,0 +1,426 @@
+package com.medicalunion.patient.search;
+
+import com.medicalunion.patient.entity.Patient;
+import com.medicalunion.patient.event.PatientChangedEvent;
+import com.medicalunion.patient.event.PatientsImportedEvent;
+import com.medicalunion.patient.mapper.PatientMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 患者检索索引
+ * Patient Search Index - 进程内 n-gram 倒排索引，替代 name LIKE '%...%' 全表扫描
+ *
+ * 索引项：
+ * - 姓名：单字 + 相邻二字（bigram）
+ * - 姓名拼音首字母：单字母 + 二字母，例如 "张三" 可用 "zs" 检索
+ * - 手机号：长度不少于 4 位的所有后缀
+ * - 医保卡号：三字（trigram）
+ *
+ * 另维护姓名与拼音首字母的前缀树，供输入联想使用。
+ *
+ * 启动后从数据库全量构建，之后随 {@link PatientChangedEvent} / {@link PatientsImportedEvent} 增量维护；
+ * 构建完成前的查询退回数据库模糊查询。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PatientSearchIndex {
+
+    private static final String NAME = "n:";
+    private static final String PINYIN = "p:";
+    private static final String PHONE = "t:";
+    private static final String CARD = "c:";
+    private static final int PHONE_SUFFIX_MIN = 4;
+    private static final int CARD_GRAM = 3;
+
+    private final PatientMapper patientMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Entry> entries = new HashMap<>();
+    private Map<String, Set<Long>> postings = new HashMap<>();
+    private PrefixTrie trie = new PrefixTrie();
+    private volatile boolean ready;
+
+    /**
+     * 全量构建期间发生变更的患者，构建完成后重新应用
+     */
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    /**
+     * 启动完成后全量构建索引（游标逐行读取）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        Map<Long, Entry> newEntries = new HashMap<>();
+        Map<String, Set<Long>> newPostings = new HashMap<>();
+        PrefixTrie newTrie = new PrefixTrie();
+        try (Cursor<Patient> cursor = patientMapper.streamAll()) {
+            for (Patient patient : cursor) {
+                Entry entry = new Entry(patient);
+                newEntries.put(entry.id, entry);
+                for (String token : entry.tokens()) {
+                    newPostings.computeIfAbsent(token, k -> new HashSet<>()).add(entry.id);
+                }
+                entry.addTo(newTrie);
+            }
+        } catch (IOException e) {
+            log.warn("关闭患者游标失败: {}", e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            postings = newPostings;
+            trie = newTrie;
+            ready = true;
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Long id : changedDuringRebuild) {
+            refresh(id);
+        }
+        changedDuringRebuild.clear();
+        log.info("患者检索索引构建完成，患者 {} 个，索引项 {} 个，耗时 {} ms",
+                newEntries.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 患者创建/更新/删除提交后，按数据库当前状态刷新该患者的索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (event.getPatientId() == null) {
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getPatientId());
+        }
+        refresh(event.getPatientId());
+    }
+
+    /**
+     * 批量导入的一个批次提交后，一次查询加入该批次的全部患者
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientsImported(PatientsImportedEvent event) {
+        if (event.getPatientIds().isEmpty()) {
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.addAll(event.getPatientIds());
+        }
+        List<Patient> patients = patientMapper.findByIds(event.getPatientIds());
+        lock.writeLock().lock();
+        try {
+            for (Patient patient : patients) {
+                remove(patient.getId());
+                add(patient);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refresh(Long patientId) {
+        Patient patient = patientMapper.findById(patientId);
+        lock.writeLock().lock();
+        try {
+            remove(patientId);
+            if (patient != null) {
+                add(patient);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Patient patient) {
+        Entry entry = new Entry(patient);
+        entries.put(entry.id, entry);
+        for (String token : entry.tokens()) {
+            postings.computeIfAbsent(token, k -> new HashSet<>()).add(entry.id);
+        }
+        entry.addTo(trie);
+    }
+
+    private void remove(Long patientId) {
+        Entry old = entries.remove(patientId);
+        if (old == null) {
+            return;
+        }
+        for (String token : old.tokens()) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(patientId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+        old.removeFrom(trie);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 检索患者，按匹配程度排序返回前 limit 个
+     * 姓名完全匹配 > 医保卡号完全匹配 > 姓名前缀 > 手机尾号 > 其余包含匹配
+     */
+    public List<Patient> search(String keyword, int limit) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new HashSet<>();
+            candidates.addAll(intersect(nameGrams(query, NAME)));
+            if (PinyinInitials.isLetters(query)) {
+                candidates.addAll(intersect(nameGrams(query, PINYIN)));
+            }
+            if (query.length() >= PHONE_SUFFIX_MIN && isDigits(query)) {
+                candidates.addAll(postings.getOrDefault(PHONE + query, Collections.emptySet()));
+            }
+            if (query.length() >= CARD_GRAM) {
+                candidates.addAll(intersect(cardGrams(query)));
+            }
+
+            // 小顶堆保留得分最高的 limit 个
+            Comparator<Scored> order = Comparator.comparingInt((Scored s) -> s.score)
+                    .thenComparing(s -> -s.entry.name.length())
+                    .thenComparingLong(s -> s.entry.id);
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, order);
+            boolean letters = PinyinInitials.isLetters(query);
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                int score = entry == null ? 0 : entry.score(query, letters);
+                if (score > 0) {
+                    top.offer(new Scored(entry, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<Patient> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(top.poll().entry.patient);
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 输入联想：姓名或拼音首字母以 prefix 开头的患者，至多 limit 个
+     * 姓名完全等于 prefix 的排在最前
+     */
+    public List<Patient> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = trie.collect(key, limit);
+            List<Patient> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    result.add(entry.patient);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 多个索引项取交集（从最短的倒排表开始），任一项不存在即为空
+     */
+    private Set<Long> intersect(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Set<Long>> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 单字 + bigram；查询时只需 bigram（单字查询用单字项）
+     */
+    private static List<String> nameGrams(String text, String prefix) {
+        List<String> grams = new ArrayList<>();
+        if (text.length() == 1) {
+            grams.add(prefix + text);
+            return grams;
+        }
+        for (int i = 0; i + 1 < text.length(); i++) {
+            grams.add(prefix + text.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static List<String> cardGrams(String text) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + CARD_GRAM <= text.length(); i++) {
+            grams.add(CARD + text.substring(i, i + CARD_GRAM));
+        }
+        return grams;
+    }
+
+    private static boolean isDigits(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引中的患者快照及其归一化字段
+     */
+    private static final class Entry {
+        private final Long id;
+        private final Patient patient;
+        private final String name;
+        private final String initials;
+        private final String phone;
+        private final String card;
+
+        private Entry(Patient patient) {
+            this.id = patient.getId();
+            this.patient = patient;
+            this.name = normalize(patient.getName());
+            this.initials = PinyinInitials.of(patient.getName());
+            this.phone = normalize(patient.getPhone());
+            this.card = normalize(patient.getMedicalCardNo());
+        }
+
+        private Set<String> tokens() {
+            Set<String> tokens = new LinkedHashSet<>();
+            addGrams(tokens, NAME, name);
+            addGrams(tokens, PINYIN, initials);
+            for (int len = PHONE_SUFFIX_MIN; len <= phone.length(); len++) {
+                tokens.add(PHONE + phone.substring(phone.length() - len));
+            }
+            tokens.addAll(cardGrams(card));
+            return tokens;
+        }
+
+        private void addTo(PrefixTrie trie) {
+            trie.add(name, id);
+            trie.add(initials, id);
+        }
+
+        private void removeFrom(PrefixTrie trie) {
+            trie.remove(name, id);
+            trie.remove(initials, id);
+        }
+
+        private static void addGrams(Set<String> tokens, String prefix, String text) {
+            for (int i = 0; i < text.length(); i++) {
+                tokens.add(prefix + text.charAt(i));
+                if (i + 1 < text.length()) {
+                    tokens.add(prefix + text.substring(i, i + 2));
+                }
+            }
+        }
+
+        /**
+         * 候选结果复核并打分，0 表示只是 n-gram 命中但不真正包含查询词
+         */
+        private int score(String query, boolean letters) {
+            int score = 0;
+            if (name.equals(query)) {
+                score = 100;
+            } else if (name.startsWith(query)) {
+                score = 80;
+            } else if (name.contains(query)) {
+                score = 50;
+            }
+            if (!card.isEmpty()) {
+                if (card.equals(query)) {
+                    score = Math.max(score, 90);
+                } else if (card.contains(query)) {
+                    score = Math.max(score, 40);
+                }
+            }
+            if (query.length() >= PHONE_SUFFIX_MIN && phone.endsWith(query)) {
+                score = Math.max(score, 70);
+            }
+            if (letters) {
+                if (initials.equals(query)) {
+                    score = Math.max(score, 60);
+                } else if (initials.startsWith(query)) {
+                    score = Math.max(score, 45);
+                } else if (initials.contains(query)) {
+                    score = Math.max(score, 30);
+                }
+            }
+            return score;
+        }
+    }
+
+    private static final class Scored {
+        private final Entry entry;
+        private final int score;
+
+        private Scored(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
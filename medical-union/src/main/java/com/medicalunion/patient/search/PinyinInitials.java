@@ -0,0 +1,89 @@
+package com.medicalunion.patient.search;
+
+import java.nio.charset.Charset;
+
+/**
+ * 汉字拼音首字母
+ * Pinyin Initials - 依据 GB2312 一级汉字按拼音排序的编码区间计算首字母，无需引入拼音库
+ *
+ * 二级汉字按部首排序无法用区间推算，这类字直接跳过；常用姓名用字基本都在一级字库内。
+ */
+final class PinyinInitials {
+    
+    private static final Charset GB2312 = Charset.forName("GB2312");
+    
+    /**
+     * 各首字母在 GB2312 中的起始编码，与 LETTERS 一一对应
+     */
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE,
+            0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8, 0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA,
+            0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1
+    };
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+    private static final int LEVEL1_END = 0xD7F9;
+    
+    private PinyinInitials() {
+    }
+    
+    /**
+     * 文本的首字母串，ASCII 字母数字原样保留（小写），无法识别的字符跳过
+     * 例如 "张三" -> "zs"
+     */
+    static String of(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (Character.isLetterOrDigit(c)) {
+                    sb.append(Character.toLowerCase(c));
+                }
+            } else {
+                char initial = initial(c);
+                if (initial != 0) {
+                    sb.append(initial);
+                }
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * 单个汉字的首字母，非一级汉字返回 0
+     */
+    static char initial(char c) {
+        byte[] bytes = String.valueOf(c).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return 0;
+        }
+        int code = ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF);
+        if (code < BOUNDARIES[0] || code > LEVEL1_END) {
+            return 0;
+        }
+        for (int i = BOUNDARIES.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return LETTERS[i];
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * 查询词是否全部由 ASCII 字母组成（按拼音首字母匹配）
+     */
+    static boolean isLetters(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || !Character.isLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
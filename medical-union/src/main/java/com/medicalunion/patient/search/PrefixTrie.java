@@ -0,0 +1,160 @@
+package com.medicalunion.patient.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 前缀树
+ * Prefix Trie - 子节点以有序字符数组 + 二分查找存储，比 HashMap 子表更省内存
+ *
+ * 每个键可关联多个 ID（同名患者），同一 ID 也可挂在多个键上（姓名与拼音首字母）。
+ * 删除 ID 后沿路径回溯，剪掉既无 ID 又无子节点的节点，改名、删除不会留下空分支。
+ * 非线程安全，由调用方加锁。
+ */
+final class PrefixTrie {
+    
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+    
+    private final Node root = new Node();
+    
+    void add(String key, long id) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.addId(id);
+    }
+    
+    void remove(String key, long id) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[key.length()];
+        node.removeId(id);
+        for (int depth = key.length(); depth > 0 && path[depth].isEmpty(); depth--) {
+            path[depth - 1].removeChild(key.charAt(depth - 1));
+        }
+    }
+    
+    /**
+     * 按深度优先（完全匹配优先，其后按字符序）收集前缀下的 ID，收满 limit 即停止
+     */
+    Set<Long> collect(String prefix, int limit) {
+        Set<Long> result = new LinkedHashSet<>();
+        Node node = find(prefix);
+        if (node != null) {
+            collect(node, limit, result);
+        }
+        return result;
+    }
+    
+    private static void collect(Node node, int limit, Set<Long> result) {
+        for (int i = 0; i < node.idCount && result.size() < limit; i++) {
+            result.add(node.ids[i]);
+        }
+        for (int i = 0; i < node.keys.length && result.size() < limit; i++) {
+            collect(node.children[i], limit, result);
+        }
+    }
+    
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+    
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_NODES;
+        private long[] ids = NO_IDS;
+        private int idCount;
+        
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+        
+        private Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = c;
+            newChildren[at] = new Node();
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[at];
+        }
+        
+        private void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                return;
+            }
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_NODES;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+        
+        private boolean isEmpty() {
+            return idCount == 0 && keys.length == 0;
+        }
+        
+        private void addId(long id) {
+            for (int i = 0; i < idCount; i++) {
+                if (ids[i] == id) {
+                    return;
+                }
+            }
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(1, idCount * 2));
+            }
+            ids[idCount++] = id;
+        }
+        
+        private void removeId(long id) {
+            for (int i = 0; i < idCount; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--idCount];
+                    if (idCount == 0) {
+                        ids = NO_IDS;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.medicalunion.patient.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalunion.audit.service.AuditLogWriter;
+import com.medicalunion.patient.dto.PatientImportReport;
+import com.medicalunion.patient.entity.Patient;
+import com.medicalunion.patient.event.PatientsImportedEvent;
+import com.medicalunion.patient.importer.CsvPatientReader;
+import com.medicalunion.patient.importer.NdjsonPatientReader;
+import com.medicalunion.patient.importer.ParsedRow;
+import com.medicalunion.patient.importer.PatientImportFormat;
+import com.medicalunion.patient.importer.PatientRecordReader;
+import com.medicalunion.patient.mapper.PatientMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 患者批量导入服务
+ * Patient Import Service - 成员医院加入时批量导入患者
+ *
+ * 流程：逐行读取文件 → 校验 → 按身份证号在内存中去重 → 每 chunk-size 行一个事务，
+ * 事务内查询已存在的身份证号并多行 INSERT 患者，审计日志在提交后交给异步写入器。
+ * 某批次写入失败（如并发导入触发唯一约束）时，该批次回滚后逐行走 sp_safe_create_patient，
+ * 以得到逐行结果。已提交的批次不会因后续批次失败而回滚。
+ * 超过 max-rows 时停止读取，返回已处理部分的结果并标记 truncated。
+ */
+@Slf4j
+@Service
+public class PatientImportService {
+    
+    private final PatientMapper patientMapper;
+    private final PatientService patientService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditLogWriter auditLogWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRows;
+    
+    public PatientImportService(PatientMapper patientMapper,
+                                PatientService patientService,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                AuditLogWriter auditLogWriter,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${patient.import.chunk-size:1000}") int chunkSize,
+                                @Value("${patient.import.max-rows:200000}") int maxRows,
+                                @Value("${patient.import.chunk-timeout-seconds:60}") int chunkTimeoutSeconds) {
+        this.patientMapper = patientMapper;
+        this.patientService = patientService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.auditLogWriter = auditLogWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(chunkTimeoutSeconds);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+    
+    /**
+     * 导入患者文件（UTF-8 编码）
+     */
+    public PatientImportReport importPatients(InputStream in, PatientImportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        PatientImportReport report = new PatientImportReport();
+        Set<String> seenIdCards = new HashSet<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        
+        try (PatientRecordReader reader = open(in, format)) {
+            ParsedRow row;
+            while ((row = reader.next()) != null) {
+                if (row.getRowNumber() > maxRows) {
+                    report.setTruncated(true);
+                    break;
+                }
+                report.setTotal(row.getRowNumber());
+                if (row.getError() != null) {
+                    report.add(row.getRowNumber(), PatientImportReport.INVALID, null, row.getError());
+                    continue;
+                }
+                Patient patient = row.getPatient();
+                String violation = validate(patient);
+                if (violation != null) {
+                    report.add(row.getRowNumber(), PatientImportReport.INVALID, null, violation);
+                    continue;
+                }
+                if (patient.getIdCard() != null && !seenIdCards.add(patient.getIdCard())) {
+                    report.add(row.getRowNumber(), PatientImportReport.DUPLICATE, null, "文件内身份证号重复");
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+        
+        report.sortRows();
+        report.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("患者导入完成: 共 {} 行, 新建 {}, 重复 {}, 无效 {}, 失败 {}, 耗时 {} ms{}",
+                report.getTotal(), report.getCreated(), report.getDuplicates(),
+                report.getInvalid(), report.getFailed(), report.getElapsedMs(),
+                report.isTruncated() ? ", 超过 " + maxRows + " 行上限，其余行未读取" : "");
+        return report;
+    }
+    
+    private PatientRecordReader open(InputStream in, PatientImportFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return format == PatientImportFormat.CSV
+                ? new CsvPatientReader(reader)
+                : new NdjsonPatientReader(reader, objectMapper);
+    }
+    
+    /**
+     * 校验并规范化身份证号（空串视为未提供，末位 x 转大写），返回错误信息或 null
+     */
+    private String validate(Patient patient) {
+        String idCard = patient.getIdCard();
+        if (idCard != null) {
+            idCard = idCard.trim();
+            patient.setIdCard(idCard.isEmpty() ? null : idCard.toUpperCase(Locale.ROOT));
+        }
+        Set<ConstraintViolation<Patient>> violations = validator.validate(patient);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    /**
+     * 在一个事务内写入一批患者；失败时退回逐行创建
+     * 提交后已回填ID的行即为新建，其余为数据库中已存在的身份证号
+     */
+    private void writeChunk(List<ParsedRow> chunk, PatientImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+        } catch (DataAccessException e) {
+            log.warn("患者批量写入失败，逐行重试 {} 行: {}", chunk.size(), e.getMessage());
+            for (ParsedRow row : chunk) {
+                createOne(row, report);
+            }
+            return;
+        }
+        for (ParsedRow row : chunk) {
+            Long id = row.getPatient().getId();
+            if (id != null) {
+                report.add(row.getRowNumber(), PatientImportReport.CREATED, id, null);
+            } else {
+                report.add(row.getRowNumber(), PatientImportReport.DUPLICATE, null, "身份证号已存在");
+            }
+        }
+    }
+    
+    private void insertChunk(List<ParsedRow> chunk) {
+        List<String> idCards = new ArrayList<>();
+        for (ParsedRow row : chunk) {
+            row.getPatient().setId(null);
+            if (row.getPatient().getIdCard() != null) {
+                idCards.add(row.getPatient().getIdCard());
+            }
+        }
+        Set<String> existing = idCards.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(patientMapper.findExistingIdCards(idCards));
+        
+        List<Patient> patients = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            Patient patient = row.getPatient();
+            if (patient.getIdCard() == null || !existing.contains(patient.getIdCard())) {
+                patients.add(patient);
+            }
+        }
+        if (patients.isEmpty()) {
+            return;
+        }
+        patientMapper.batchInsert(patients);
+        List<Long> ids = patients.stream().map(Patient::getId).collect(Collectors.toList());
+        for (Long id : ids) {
+            auditLogWriter.record(null, "CREATE_PATIENT", "patients", id, "Imported patient id=" + id);
+        }
+        eventPublisher.publishEvent(new PatientsImportedEvent(ids));
+    }
+    
+    /**
+     * 逐行经存储过程创建，用于批次失败后的重试
+     */
+    private void createOne(ParsedRow row, PatientImportReport report) {
+        Patient patient = row.getPatient();
+        patient.setId(null);
+        try {
+            patientService.createPatient(patient);
+            report.add(row.getRowNumber(), PatientImportReport.CREATED, patient.getId(), null);
+        } catch (IllegalArgumentException e) {
+            String status = "Duplicate id_card".equals(e.getMessage())
+                    ? PatientImportReport.DUPLICATE
+                    : PatientImportReport.FAILED;
+            report.add(row.getRowNumber(), status, null, e.getMessage());
+        } catch (RuntimeException e) {
+            report.add(row.getRowNumber(), PatientImportReport.FAILED, null, e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package com.medicalunion.patient.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalunion.audit.service.AuditLogWriter;
+import com.medicalunion.common.CursorPage;
+import com.medicalunion.common.KeysetCursor;
 import com.medicalunion.common.StoredProcedureResult;
+import com.medicalunion.patient.dto.PatientSuggestion;
 import com.medicalunion.patient.entity.Patient;
+import com.medicalunion.patient.event.PatientChangedEvent;
 import com.medicalunion.patient.mapper.PatientMapper;
+import com.medicalunion.patient.search.PatientSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,7 +35,16 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PatientService {
     
+    /**
+     * 导出时每写出多少行刷新一次输出流
+     */
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    
     private final PatientMapper patientMapper;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PatientSearchIndex patientSearchIndex;
+    private final AuditLogWriter auditLogWriter;
     
     /**
      * 查询所有患者
@@ -30,6 +53,27 @@ public class PatientService {
         return patientMapper.findAll();
     }
     
+    /**
+     * 以 NDJSON 格式流式导出所有患者
+     * 每行一个 JSON 对象，游标逐行读取，内存占用与表大小无关
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        long rows = 0;
+        try (Cursor<Patient> cursor = patientMapper.streamAll()) {
+            for (Patient patient : cursor) {
+                out.write(objectMapper.writeValueAsBytes(patient));
+                out.write('\n');
+                if (++rows % EXPORT_FLUSH_ROWS == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("导出患者完成，共 {} 行", rows);
+        return rows;
+    }
+    
     /**
      * 根据ID查询患者
      */
@@ -45,11 +89,15 @@ public class PatientService {
     }
     
     /**
-     * 分页查询患者
+     * 游标分页查询患者
+     * 多查询一行用于判断是否还有下一页
      */
-    public List<Patient> findByPage(int pageNum, int pageSize) {
-        int offset = (pageNum - 1) * pageSize;
-        return patientMapper.findByPage(offset, pageSize);
+    public CursorPage<Patient> findPage(String after, int pageSize) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<Patient> rows = cursor == null
+                ? patientMapper.findPageAfter(null, null, pageSize + 1)
+                : patientMapper.findPageAfter(cursor.getCreatedAt(), cursor.getId(), pageSize + 1);
+        return CursorPage.of(rows, pageSize);
     }
     
     /**
@@ -59,6 +107,42 @@ public class PatientService {
         return patientMapper.findByNameLike(name);
     }
     
+    /**
+     * 按姓名、拼音首字母、手机尾号或医保卡号检索患者，返回最匹配的前 limit 个
+     * 索引尚未构建完成时退回数据库模糊查询
+     */
+    public List<Patient> search(String keyword, int limit) {
+        if (patientSearchIndex.isReady()) {
+            return patientSearchIndex.search(keyword, limit);
+        }
+        List<Patient> patients = patientMapper.findByNameLike(keyword);
+        return patients.size() > limit ? patients.subList(0, limit) : patients;
+    }
+    
+    /**
+     * 输入联想：返回至多 limit 个轻量投影，并批量补充最近就诊时间
+     */
+    public List<PatientSuggestion> suggest(String prefix, int limit) {
+        List<Patient> patients = patientSearchIndex.isReady()
+                ? patientSearchIndex.suggest(prefix, limit)
+                : search(prefix, limit);
+        if (patients.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Map<Long, PatientSuggestion> suggestions = new LinkedHashMap<>();
+        for (Patient patient : patients) {
+            suggestions.put(patient.getId(), PatientSuggestion.of(patient));
+        }
+        for (PatientSuggestion visit : patientMapper.findLastVisitTimes(suggestions.keySet())) {
+            PatientSuggestion suggestion = suggestions.get(visit.getId());
+            if (suggestion != null) {
+                suggestion.setLastVisitAt(visit.getLastVisitAt());
+            }
+        }
+        return new ArrayList<>(suggestions.values());
+    }
+    
     /**
      * 创建患者
      */
@@ -105,6 +189,9 @@ public class PatientService {
                     patient.setId(newId);
                 }
                 log.info("创建患者成功，ID: {}, 姓名: {}", patient.getId(), patient.getName());
+                eventPublisher.publishEvent(new PatientChangedEvent(patient.getId()));
+                auditLogWriter.record(null, "CREATE_PATIENT", "patients", patient.getId(),
+                        "Created patient id=" + patient.getId());
                 return patient;
             } else {
                 String msg = resultMessage == null ? "创建患者失败" : resultMessage;
@@ -141,6 +228,10 @@ public class PatientService {
             result.setResultMessage(resultMessage);
             
             log.info("更新患者信息 - ID: {}, 结果: {}, 消息: {}", patientId, resultCode, resultMessage);
+            if (result.isSuccess()) {
+                eventPublisher.publishEvent(new PatientChangedEvent(patientId));
+                auditLogWriter.record(null, "UPDATE_PATIENT", "patients", patientId, "Updated patient id=" + patientId);
+            }
             return result;
             
         } catch (Exception e) {
@@ -168,6 +259,10 @@ public class PatientService {
             result.setResultMessage(resultMessage);
             
             log.info("删除患者 - ID: {}, 结果: {}, 消息: {}", patientId, resultCode, resultMessage);
+            if (result.isSuccess()) {
+                eventPublisher.publishEvent(new PatientChangedEvent(patientId));
+                auditLogWriter.record(null, "DELETE_PATIENT", "patients", patientId, "Deleted patient id=" + patientId);
+            }
             return result;
             
         } catch (Exception e) {
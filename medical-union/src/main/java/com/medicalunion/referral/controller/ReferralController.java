@@ -1,17 +1,24 @@
 package com.medicalunion.referral.controller;
 
+import com.medicalunion.common.CursorPage;
 import com.medicalunion.common.Result;
 import com.medicalunion.common.StoredProcedureResult;
+import com.medicalunion.referral.dto.ReferralBatchApproveRequest;
+import com.medicalunion.referral.dto.ReferralBatchItemResult;
+import com.medicalunion.referral.dto.ReferralQuery;
+import com.medicalunion.referral.dto.ReferralSummary;
 import com.medicalunion.referral.entity.Referral;
 import com.medicalunion.referral.service.ReferralService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -32,9 +39,9 @@ public class ReferralController {
      * GET /api/referrals
      */
     @GetMapping
-    public Result<List<Referral>> getAllReferrals() {
+    public Result<List<ReferralSummary>> getAllReferrals() {
         try {
-            List<Referral> referrals = referralService.findAll();
+            List<ReferralSummary> referrals = referralService.findAll();
             return Result.success("查询转诊记录列表成功", referrals);
         } catch (Exception e) {
             log.error("查询转诊记录列表失败", e);
@@ -42,6 +49,49 @@ public class ReferralController {
         }
     }
     
+    /**
+     * 组合条件分页查询转诊记录
+     * GET /api/referrals/query?status=待审批&hospitalId=1&direction=IN&from=2024-01-01&to=2024-01-31&pageSize=20&after={nextCursor}
+     * from/to 为创建日期，闭区间；hospitalId/doctorId 未指定 direction 时匹配转出或转入
+     */
+    @GetMapping("/query")
+    public Result<CursorPage<ReferralSummary>> queryReferrals(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long hospitalId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int pageSize) {
+        try {
+            if (pageSize < 1 || pageSize > 200) {
+                return Result.error(400, "页面大小必须在1到200之间");
+            }
+            
+            ReferralQuery query = new ReferralQuery();
+            query.setStatus(status);
+            query.setPriority(priority);
+            query.setPatientId(patientId);
+            query.setHospitalId(hospitalId);
+            query.setDoctorId(doctorId);
+            query.setDirection(direction);
+            query.setCreatedFrom(from == null ? null : from.atStartOfDay());
+            query.setCreatedTo(to == null ? null : to.plusDays(1).atStartOfDay());
+            
+            CursorPage<ReferralSummary> page = referralService.query(query, after, pageSize);
+            return Result.success("查询转诊记录成功", page);
+        } catch (IllegalArgumentException e) {
+            log.warn("查询转诊记录失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("查询转诊记录失败", e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 根据ID查询转诊记录
      * GET /api/referrals/{id}
@@ -66,9 +116,9 @@ public class ReferralController {
      * GET /api/referrals/patient/{patientId}
      */
     @GetMapping("/patient/{patientId}")
-    public Result<List<Referral>> getReferralsByPatientId(@PathVariable @NotNull Long patientId) {
+    public Result<List<ReferralSummary>> getReferralsByPatientId(@PathVariable @NotNull Long patientId) {
         try {
-            List<Referral> referrals = referralService.findByPatientId(patientId);
+            List<ReferralSummary> referrals = referralService.findByPatientId(patientId);
             return Result.success("根据患者ID查询转诊记录成功", referrals);
         } catch (Exception e) {
             log.error("根据患者ID查询转诊记录失败, 患者ID: {}", patientId, e);
@@ -81,9 +131,9 @@ public class ReferralController {
      * GET /api/referrals/from-doctor/{doctorId}
      */
     @GetMapping("/from-doctor/{doctorId}")
-    public Result<List<Referral>> getReferralsByFromDoctorId(@PathVariable @NotNull Long doctorId) {
+    public Result<List<ReferralSummary>> getReferralsByFromDoctorId(@PathVariable @NotNull Long doctorId) {
         try {
-            List<Referral> referrals = referralService.findByFromDoctorId(doctorId);
+            List<ReferralSummary> referrals = referralService.findByFromDoctorId(doctorId);
             return Result.success("根据转出医生ID查询转诊记录成功", referrals);
         } catch (Exception e) {
             log.error("根据转出医生ID查询转诊记录失败, 医生ID: {}", doctorId, e);
@@ -96,9 +146,9 @@ public class ReferralController {
      * GET /api/referrals/to-doctor/{doctorId}
      */
     @GetMapping("/to-doctor/{doctorId}")
-    public Result<List<Referral>> getReferralsByToDoctorId(@PathVariable @NotNull Long doctorId) {
+    public Result<List<ReferralSummary>> getReferralsByToDoctorId(@PathVariable @NotNull Long doctorId) {
         try {
-            List<Referral> referrals = referralService.findByToDoctorId(doctorId);
+            List<ReferralSummary> referrals = referralService.findByToDoctorId(doctorId);
             return Result.success("根据转入医生ID查询转诊记录成功", referrals);
         } catch (Exception e) {
             log.error("根据转入医生ID查询转诊记录失败, 医生ID: {}", doctorId, e);
@@ -111,9 +161,9 @@ public class ReferralController {
      * GET /api/referrals/status/{status}
      */
     @GetMapping("/status/{status}")
-    public Result<List<Referral>> getReferralsByStatus(@PathVariable @NotBlank String status) {
+    public Result<List<ReferralSummary>> getReferralsByStatus(@PathVariable @NotBlank String status) {
         try {
-            List<Referral> referrals = referralService.findByStatus(status);
+            List<ReferralSummary> referrals = referralService.findByStatus(status);
             return Result.success("根据状态查询转诊记录成功", referrals);
         } catch (Exception e) {
             log.error("根据状态查询转诊记录失败, 状态: {}", status, e);
@@ -126,9 +176,9 @@ public class ReferralController {
      * GET /api/referrals/hospital/{hospitalId}
      */
     @GetMapping("/hospital/{hospitalId}")
-    public Result<List<Referral>> getReferralsByHospitalId(@PathVariable @NotNull Long hospitalId) {
+    public Result<List<ReferralSummary>> getReferralsByHospitalId(@PathVariable @NotNull Long hospitalId) {
         try {
-            List<Referral> referrals = referralService.findByHospitalId(hospitalId);
+            List<ReferralSummary> referrals = referralService.findByHospitalId(hospitalId);
             return Result.success("根据医院ID查询转诊记录成功", referrals);
         } catch (Exception e) {
             log.error("根据医院ID查询转诊记录失败, 医院ID: {}", hospitalId, e);
@@ -154,6 +204,43 @@ public class ReferralController {
         }
     }
     
+    /**
+     * 批量创建转诊申请，逐项返回结果码（0 成功，负数失败）
+     * POST /api/referrals/batch
+     */
+    @PostMapping("/batch")
+    public Result<List<ReferralBatchItemResult>> createReferrals(@RequestBody List<Referral> referrals) {
+        try {
+            List<ReferralBatchItemResult> results = referralService.createReferrals(referrals);
+            return Result.success(batchMessage("批量创建转诊申请", results), results);
+        } catch (IllegalArgumentException e) {
+            log.warn("批量创建转诊申请失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("批量创建转诊申请失败", e);
+            return Result.error("批量创建转诊申请失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量审批转诊申请，逐项返回结果码（与单条审批的存储过程结果码一致）
+     * PUT /api/referrals/batch/approve
+     */
+    @PutMapping("/batch/approve")
+    public Result<List<ReferralBatchItemResult>> approveReferrals(@RequestBody @Valid ReferralBatchApproveRequest request) {
+        try {
+            List<ReferralBatchItemResult> results = referralService.approveReferrals(
+                    request.getReferralIds(), request.getToDoctorId(), request.getNotes());
+            return Result.success(batchMessage("批量审批转诊申请", results), results);
+        } catch (IllegalArgumentException e) {
+            log.warn("批量审批转诊申请失败: {}", e.getMessage());
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("批量审批转诊申请失败", e);
+            return Result.error("批量审批转诊申请失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 审批转诊申请
      * PUT /api/referrals/{id}/approve
@@ -250,4 +337,9 @@ public class ReferralController {
             return Result.error("统计失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    private static String batchMessage(String action, List<ReferralBatchItemResult> results) {
+        long success = results.stream().filter(ReferralBatchItemResult::isSuccess).count();
+        return action + "完成: 成功 " + success + " 条, 失败 " + (results.size() - success) + " 条";
+    }
+}
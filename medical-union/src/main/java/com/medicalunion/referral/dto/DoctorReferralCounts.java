@@ -0,0 +1,31 @@
+package com.medicalunion.referral.dto;
+
+import lombok.Data;
+
+/**
+ * 医生转诊计数
+ * Doctor Referral Counts - 单条聚合查询返回的医生转诊统计
+ */
+@Data
+public class DoctorReferralCounts {
+    
+    /**
+     * 转出转诊数
+     */
+    private Long outgoing;
+    
+    /**
+     * 转入转诊数
+     */
+    private Long incoming;
+    
+    /**
+     * 待审批转诊数（转出或转入）
+     */
+    private Long pending;
+    
+    /**
+     * 本月完成转诊数（转出或转入）
+     */
+    private Long completedThisMonth;
+}
@@ -0,0 +1,30 @@
+package com.medicalunion.referral.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 批量审批转诊请求
+ * Referral Batch Approve Request
+ */
+@Data
+public class ReferralBatchApproveRequest {
+    
+    /**
+     * 待审批的转诊ID
+     */
+    @NotEmpty(message = "转诊ID列表不能为空")
+    private List<Long> referralIds;
+    
+    /**
+     * 转入医生ID（为空时保持原值）
+     */
+    private Long toDoctorId;
+    
+    /**
+     * 审批备注（为空时保持原值）
+     */
+    private String notes;
+}
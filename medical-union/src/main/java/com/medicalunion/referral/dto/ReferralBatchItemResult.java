@@ -0,0 +1,40 @@
+package com.medicalunion.referral.dto;
+
+import com.medicalunion.common.StoredProcedureResult;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 批量操作单项结果
+ * Referral Batch Item Result - 结果码与 sp_update_referral_status 保持一致
+ *
+ * 0: 成功；-1: 数据库错误；-2: 转诊记录不存在；-3: 当前状态不允许修改；-4: 参数校验失败
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ReferralBatchItemResult extends StoredProcedureResult {
+    
+    public static final int DATABASE_ERROR = -1;
+    public static final int NOT_FOUND = -2;
+    public static final int STATUS_LOCKED = -3;
+    public static final int INVALID = -4;
+    
+    /**
+     * 在请求中的位置（从 0 开始）
+     */
+    private int index;
+    
+    /**
+     * 转诊ID（创建失败时为空）
+     */
+    private Long referralId;
+    
+    public static ReferralBatchItemResult of(int index, Long referralId, int resultCode, String resultMessage) {
+        ReferralBatchItemResult result = new ReferralBatchItemResult();
+        result.setIndex(index);
+        result.setReferralId(referralId);
+        result.setResultCode(resultCode);
+        result.setResultMessage(resultMessage);
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package com.medicalunion.referral.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 转诊组合查询条件
+ * Referral Query - GET /referrals/query 的过滤条件，各条件之间为 AND 关系，空值表示不过滤
+ */
+@Data
+public class ReferralQuery {
+    
+    /**
+     * 医院方向：转出
+     */
+    public static final String DIRECTION_OUT = "OUT";
+    
+    /**
+     * 医院方向：转入
+     */
+    public static final String DIRECTION_IN = "IN";
+    
+    /**
+     * 转诊状态
+     */
+    private String status;
+    
+    /**
+     * 优先级
+     */
+    private String priority;
+    
+    /**
+     * 患者ID
+     */
+    private Long patientId;
+    
+    /**
+     * 医院ID（转出或转入）
+     */
+    private Long hospitalId;
+    
+    /**
+     * 医生ID（转出或转入）
+     */
+    private Long doctorId;
+    
+    /**
+     * 医院/医生的方向：OUT 仅转出，IN 仅转入，空值两者皆可
+     */
+    private String direction;
+    
+    /**
+     * 创建时间下界（含）
+     */
+    private LocalDateTime createdFrom;
+    
+    /**
+     * 创建时间上界（不含）
+     */
+    private LocalDateTime createdTo;
+}
@@ -0,0 +1,87 @@
+package com.medicalunion.referral.dto;
+
+import com.medicalunion.common.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * 转诊列表项
+ * Referral Summary - 列表页使用的精简投影，不含转诊原因、备注等大字段
+ * 详情请使用 GET /referrals/{id}
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ReferralSummary extends BaseEntity {
+    
+    /**
+     * 患者ID
+     */
+    private Long patientId;
+    
+    /**
+     * 患者姓名
+     */
+    private String patientName;
+    
+    /**
+     * 转出医生ID
+     */
+    private Long fromDoctorId;
+    
+    /**
+     * 转入医生ID
+     */
+    private Long toDoctorId;
+    
+    /**
+     * 转出医院ID
+     */
+    private Long fromHospitalId;
+    
+    /**
+     * 转入医院ID
+     */
+    private Long toHospitalId;
+    
+    /**
+     * 转出医生姓名
+     */
+    private String fromDoctorName;
+    
+    /**
+     * 转入医生姓名
+     */
+    private String toDoctorName;
+    
+    /**
+     * 转出医院名称
+     */
+    private String fromHospitalName;
+    
+    /**
+     * 转入医院名称
+     */
+    private String toHospitalName;
+    
+    /**
+     * 转诊类型：上转/下转/平转
+     */
+    private String referralType;
+    
+    /**
+     * 优先级：普通/急诊/特急
+     */
+    private String priority;
+    
+    /**
+     * 转诊状态
+     */
+    private String status;
+    
+    /**
+     * 转诊申请时间
+     */
+    private LocalDateTime referralDate;
+}
@@ -0,0 +1,28 @@
+package com.medicalunion.referral.event;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * 转诊变更事件
+ * Referral Changed Event - 创建转诊或转诊状态变更后发布
+ */
+@Getter
+public class ReferralChangedEvent {
+    
+    /**
+     * 转诊ID
+     */
+    private final Long referralId;
+    
+    /**
+     * 受影响的医生ID（转出医生、变更前后的转入医生）
+     */
+    private final Set<Long> doctorIds;
+    
+    public ReferralChangedEvent(Long referralId, Set<Long> doctorIds) {
+        this.referralId = referralId;
+        this.doctorIds = doctorIds;
+    }
+}
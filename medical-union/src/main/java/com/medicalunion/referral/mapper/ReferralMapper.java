@@ -1,9 +1,15 @@
 package com.medicalunion.referral.mapper;
 
+import com.medicalunion.common.KeysetCursor;
+import com.medicalunion.referral.dto.DoctorReferralCounts;
+import com.medicalunion.referral.dto.ReferralQuery;
+import com.medicalunion.referral.dto.ReferralSummary;
 import com.medicalunion.referral.entity.Referral;
 import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.mapping.StatementType;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -15,39 +21,52 @@ import java.util.Map;
 public interface ReferralMapper {
     
     /**
-     * 查询所有转诊记录（包含关联信息）
+     * 查询所有转诊记录（列表投影）
      */
-    List<Referral> findAll();
+    List<ReferralSummary> findAll();
     
     /**
      * 根据ID查询转诊记录
      */
     Referral findById(@Param("id") Long id);
     
+    /**
+     * 根据ID查询转诊的转出、转入医生（不关联其他表）
+     */
+    @Select("SELECT id, from_doctor_id AS fromDoctorId, to_doctor_id AS toDoctorId FROM referrals WHERE id = #{id}")
+    Referral findDoctorIdsById(@Param("id") Long id);
+    
     /**
      * 根据患者ID查询转诊记录
      */
-    List<Referral> findByPatientId(@Param("patientId") Long patientId);
+    List<ReferralSummary> findByPatientId(@Param("patientId") Long patientId);
     
     /**
      * 根据转出医生ID查询转诊记录
      */
-    List<Referral> findByFromDoctorId(@Param("fromDoctorId") Long fromDoctorId);
+    List<ReferralSummary> findByFromDoctorId(@Param("fromDoctorId") Long fromDoctorId);
     
     /**
      * 根据转入医生ID查询转诊记录
      */
-    List<Referral> findByToDoctorId(@Param("toDoctorId") Long toDoctorId);
+    List<ReferralSummary> findByToDoctorId(@Param("toDoctorId") Long toDoctorId);
     
     /**
      * 根据状态查询转诊记录
      */
-    List<Referral> findByStatus(@Param("status") String status);
+    List<ReferralSummary> findByStatus(@Param("status") String status);
     
     /**
      * 根据医院查询转诊记录（转出或转入）
      */
-    List<Referral> findByHospitalId(@Param("hospitalId") Long hospitalId);
+    List<ReferralSummary> findByHospitalId(@Param("hospitalId") Long hospitalId);
+    
+    /**
+     * 组合条件键集分页查询，cursor 为空时从第一页开始
+     */
+    List<ReferralSummary> query(@Param("query") ReferralQuery query,
+                                @Param("cursor") KeysetCursor cursor,
+                                @Param("limit") int limit);
     
     /**
      * 插入转诊记录
@@ -62,6 +81,24 @@ public interface ReferralMapper {
     @Options(statementType = StatementType.CALLABLE)
     void updateReferralStatus(Map<String, Object> params);
     
+    /**
+     * 批量插入转诊记录（单条多行 INSERT），回填自增ID
+     */
+    int batchInsert(@Param("referrals") List<Referral> referrals);
+    
+    /**
+     * 锁定并查询转诊的状态与转出、转入医生（批量状态变更前使用，需在事务内调用）
+     */
+    List<Referral> findStatusForUpdate(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 批量更新转诊状态，字段处理与 sp_update_referral_status 一致；已完成、已取消的记录不会被修改
+     */
+    int batchUpdateStatus(@Param("ids") Collection<Long> ids,
+                          @Param("status") String status,
+                          @Param("toDoctorId") Long toDoctorId,
+                          @Param("notes") String notes);
+    
     /**
      * 统计转诊记录总数
      */
@@ -73,4 +110,11 @@ public interface ReferralMapper {
      */
     @Select("SELECT COUNT(*) FROM referrals WHERE status = #{status}")
     long countByStatus(@Param("status") String status);
+    
+    /**
+     * 统计医生的转出、转入、待审批及指定时间之后完成的转诊数
+     * 只访问 referrals 覆盖索引，不关联其他表
+     */
+    DoctorReferralCounts countByDoctor(@Param("doctorId") Long doctorId,
+                                       @Param("completedSince") LocalDateTime completedSince);
 }
\ No newline at end of file
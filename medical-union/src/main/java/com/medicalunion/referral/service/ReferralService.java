@@ -1,17 +1,35 @@
 package com.medicalunion.referral.service;
 
+import com.medicalunion.common.CursorPage;
+import com.medicalunion.common.KeysetCursor;
 import com.medicalunion.common.StoredProcedureResult;
+import com.medicalunion.hospital.service.ReferenceNameCache;
+import com.medicalunion.referral.dto.ReferralBatchItemResult;
+import com.medicalunion.referral.dto.ReferralQuery;
+import com.medicalunion.referral.dto.ReferralSummary;
 import com.medicalunion.referral.entity.Referral;
+import com.medicalunion.referral.event.ReferralChangedEvent;
 import com.medicalunion.referral.mapper.ReferralMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 转诊服务类
@@ -23,54 +41,94 @@ import java.util.Map;
 public class ReferralService {
     
     private final ReferralMapper referralMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceNameCache referenceNameCache;
+    private final Validator validator;
+    
+    /**
+     * 批量接口单次最多处理的条数
+     */
+    @Value("${referral.batch.max-size:500}")
+    private int batchMaxSize;
     
     /**
      * 查询所有转诊记录
      */
-    public List<Referral> findAll() {
-        return referralMapper.findAll();
+    public List<ReferralSummary> findAll() {
+        return withNames(referralMapper.findAll());
     }
     
     /**
      * 根据ID查询转诊记录
      */
     public Referral findById(Long id) {
-        return referralMapper.findById(id);
+        Referral referral = referralMapper.findById(id);
+        if (referral != null) {
+            referral.setFromDoctorName(referenceNameCache.doctorName(referral.getFromDoctorId()));
+            referral.setToDoctorName(referenceNameCache.doctorName(referral.getToDoctorId()));
+            referral.setFromHospitalName(referenceNameCache.hospitalName(referral.getFromHospitalId()));
+            referral.setToHospitalName(referenceNameCache.hospitalName(referral.getToHospitalId()));
+        }
+        return referral;
     }
     
     /**
      * 根据患者ID查询转诊记录
      */
-    public List<Referral> findByPatientId(Long patientId) {
-        return referralMapper.findByPatientId(patientId);
+    public List<ReferralSummary> findByPatientId(Long patientId) {
+        return withNames(referralMapper.findByPatientId(patientId));
     }
     
     /**
      * 根据医生ID查询转诊记录（转出）
      */
-    public List<Referral> findByFromDoctorId(Long fromDoctorId) {
-        return referralMapper.findByFromDoctorId(fromDoctorId);
+    public List<ReferralSummary> findByFromDoctorId(Long fromDoctorId) {
+        return withNames(referralMapper.findByFromDoctorId(fromDoctorId));
     }
     
     /**
      * 根据医生ID查询转诊记录（转入）
      */
-    public List<Referral> findByToDoctorId(Long toDoctorId) {
-        return referralMapper.findByToDoctorId(toDoctorId);
+    public List<ReferralSummary> findByToDoctorId(Long toDoctorId) {
+        return withNames(referralMapper.findByToDoctorId(toDoctorId));
     }
     
     /**
      * 根据状态查询转诊记录
      */
-    public List<Referral> findByStatus(String status) {
-        return referralMapper.findByStatus(status);
+    public List<ReferralSummary> findByStatus(String status) {
+        return withNames(referralMapper.findByStatus(status));
     }
     
     /**
      * 根据医院ID查询转诊记录
      */
-    public List<Referral> findByHospitalId(Long hospitalId) {
-        return referralMapper.findByHospitalId(hospitalId);
+    public List<ReferralSummary> findByHospitalId(Long hospitalId) {
+        return withNames(referralMapper.findByHospitalId(hospitalId));
+    }
+    
+    /**
+     * 组合条件分页查询转诊记录
+     * 多查询一行用于判断是否还有下一页
+     */
+    public CursorPage<ReferralSummary> query(ReferralQuery query, String after, int pageSize) {
+        String direction = query.getDirection();
+        if (direction != null && !direction.isBlank()) {
+            direction = direction.trim().toUpperCase();
+            if (!ReferralQuery.DIRECTION_OUT.equals(direction) && !ReferralQuery.DIRECTION_IN.equals(direction)) {
+                throw new IllegalArgumentException("direction 只能为 OUT 或 IN");
+            }
+            query.setDirection(direction);
+        } else {
+            query.setDirection(null);
+        }
+        if (query.getCreatedFrom() != null && query.getCreatedTo() != null
+                && !query.getCreatedFrom().isBefore(query.getCreatedTo())) {
+            throw new IllegalArgumentException("开始日期必须早于结束日期");
+        }
+        
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return CursorPage.of(withNames(referralMapper.query(query, cursor, pageSize + 1)), pageSize);
     }
     
     /**
@@ -78,22 +136,15 @@ public class ReferralService {
      */
     @Transactional
     public Referral createReferral(Referral referral) {
-        // 设置默认值
-        if (referral.getReferralDate() == null) {
-            referral.setReferralDate(LocalDateTime.now());
-        }
-        if (referral.getStatus() == null) {
-            referral.setStatus("待审批");
-        }
-        if (referral.getPriority() == null) {
-            referral.setPriority("普通");
-        }
+        applyDefaults(referral);
         
         // 业务验证
         validateReferral(referral);
         
         int result = referralMapper.insert(referral);
         if (result > 0) {
+            eventPublisher.publishEvent(new ReferralChangedEvent(referral.getId(),
+                    doctorIds(referral.getFromDoctorId(), referral.getToDoctorId())));
             log.info("创建转诊申请成功，ID: {}, 患者ID: {}, 转出医生ID: {}", 
                     referral.getId(), referral.getPatientId(), referral.getFromDoctorId());
             return referral;
@@ -102,6 +153,145 @@ public class ReferralService {
         }
     }
     
+    /**
+     * 批量创建转诊申请
+     * 校验不通过的项返回 -4，其余一条多行 INSERT 写入；整批写入失败时逐条插入以定位失败项
+     */
+    @Transactional
+    public List<ReferralBatchItemResult> createReferrals(List<Referral> referrals) {
+        checkBatchSize(referrals.size());
+        ReferralBatchItemResult[] results = new ReferralBatchItemResult[referrals.size()];
+        List<Referral> valid = new ArrayList<>(referrals.size());
+        List<Integer> validIndexes = new ArrayList<>(referrals.size());
+        
+        for (int i = 0; i < referrals.size(); i++) {
+            Referral referral = referrals.get(i);
+            String error = referral == null ? "转诊记录不能为空" : validateForBatch(referral);
+            if (error != null) {
+                results[i] = ReferralBatchItemResult.of(i, null, ReferralBatchItemResult.INVALID, error);
+            } else {
+                referral.setId(null);
+                valid.add(referral);
+                validIndexes.add(i);
+            }
+        }
+        
+        if (!valid.isEmpty()) {
+            try {
+                referralMapper.batchInsert(valid);
+            } catch (DataAccessException e) {
+                log.warn("批量创建转诊失败，逐条重试 {} 条: {}", valid.size(), e.getMessage());
+                insertOneByOne(valid);
+            }
+        }
+        for (int j = 0; j < valid.size(); j++) {
+            Referral referral = valid.get(j);
+            int index = validIndexes.get(j);
+            if (referral.getId() == null) {
+                results[index] = ReferralBatchItemResult.of(index, null,
+                        ReferralBatchItemResult.DATABASE_ERROR, "创建转诊申请失败：数据库错误");
+                continue;
+            }
+            results[index] = ReferralBatchItemResult.of(index, referral.getId(), 0, "创建转诊申请成功");
+            eventPublisher.publishEvent(new ReferralChangedEvent(referral.getId(),
+                    doctorIds(referral.getFromDoctorId(), referral.getToDoctorId())));
+        }
+        
+        List<ReferralBatchItemResult> list = Arrays.asList(results);
+        log.info("批量创建转诊 - 共 {} 条, 成功 {} 条", list.size(), countSuccess(list));
+        return list;
+    }
+    
+    /**
+     * 逐条插入；单条失败只回滚该语句，不影响同一事务内的其他记录
+     */
+    private void insertOneByOne(List<Referral> referrals) {
+        for (Referral referral : referrals) {
+            referral.setId(null);
+            try {
+                referralMapper.insert(referral);
+            } catch (DataAccessException e) {
+                referral.setId(null);
+                log.warn("创建转诊失败 - 患者ID: {}, 错误: {}", referral.getPatientId(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 批量审批转诊申请
+     */
+    @Transactional
+    public List<ReferralBatchItemResult> approveReferrals(List<Long> referralIds, Long toDoctorId, String notes) {
+        return updateReferralStatuses(referralIds, "已审批", toDoctorId, notes);
+    }
+    
+    /**
+     * 批量更新转诊状态
+     * 与 sp_update_referral_status 规则一致，但整批只需一次加锁查询和一次 UPDATE
+     */
+    @Transactional
+    public List<ReferralBatchItemResult> updateReferralStatuses(List<Long> referralIds, String status,
+                                                                Long toDoctorId, String notes) {
+        checkBatchSize(referralIds.size());
+        Set<Long> distinctIds = referralIds.stream()
+                .filter(id -> id != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Referral> current = new HashMap<>();
+        if (!distinctIds.isEmpty()) {
+            for (Referral referral : referralMapper.findStatusForUpdate(distinctIds)) {
+                current.put(referral.getId(), referral);
+            }
+        }
+        
+        ReferralBatchItemResult[] results = new ReferralBatchItemResult[referralIds.size()];
+        List<Integer> updatableIndexes = new ArrayList<>();
+        Set<Long> updatableIds = new LinkedHashSet<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < referralIds.size(); i++) {
+            Long id = referralIds.get(i);
+            Referral before = id == null ? null : current.get(id);
+            if (id == null) {
+                results[i] = ReferralBatchItemResult.of(i, null, ReferralBatchItemResult.INVALID, "转诊ID不能为空");
+            } else if (!seen.add(id)) {
+                results[i] = ReferralBatchItemResult.of(i, id, ReferralBatchItemResult.INVALID, "请求中转诊ID重复");
+            } else if (before == null) {
+                results[i] = ReferralBatchItemResult.of(i, id, ReferralBatchItemResult.NOT_FOUND,
+                        "更新失败：转诊记录不存在");
+            } else if ("已完成".equals(before.getStatus()) || "已取消".equals(before.getStatus())) {
+                results[i] = ReferralBatchItemResult.of(i, id, ReferralBatchItemResult.STATUS_LOCKED,
+                        "更新失败：转诊已" + before.getStatus() + "，无法修改");
+            } else {
+                updatableIndexes.add(i);
+                updatableIds.add(id);
+            }
+        }
+        
+        if (!updatableIds.isEmpty()) {
+            int code = 0;
+            String message = "转诊状态更新为：" + status;
+            try {
+                referralMapper.batchUpdateStatus(updatableIds, status, toDoctorId, notes);
+            } catch (DataAccessException e) {
+                log.error("批量更新转诊状态异常 - 状态: {}, 错误: {}", status, e.getMessage());
+                code = ReferralBatchItemResult.DATABASE_ERROR;
+                message = "更新转诊状态失败：数据库错误";
+            }
+            for (int index : updatableIndexes) {
+                Long id = referralIds.get(index);
+                results[index] = ReferralBatchItemResult.of(index, id, code, message);
+                if (code == 0) {
+                    Referral before = current.get(id);
+                    eventPublisher.publishEvent(new ReferralChangedEvent(id,
+                            doctorIds(before.getFromDoctorId(), before.getToDoctorId(), toDoctorId)));
+                }
+            }
+        }
+        
+        List<ReferralBatchItemResult> list = Arrays.asList(results);
+        log.info("批量更新转诊状态 - 状态: {}, 共 {} 条, 成功 {} 条", status, list.size(), countSuccess(list));
+        return list;
+    }
+    
     /**
      * 更新转诊状态（调用存储过程）
      */
@@ -114,11 +304,17 @@ public class ReferralService {
         params.put("notes", notes);
         
         try {
+            Referral before = referralMapper.findDoctorIdsById(referralId);
             referralMapper.updateReferralStatus(params);
             
             Integer resultCode = (Integer) params.get("resultCode");
             String resultMessage = (String) params.get("resultMessage");
             
+            if (before != null && resultCode != null && resultCode == 0) {
+                eventPublisher.publishEvent(new ReferralChangedEvent(referralId,
+                        doctorIds(before.getFromDoctorId(), before.getToDoctorId(), toDoctorId)));
+            }
+            
             StoredProcedureResult result = new StoredProcedureResult();
             result.setResultCode(resultCode);
             result.setResultMessage(resultMessage);
@@ -171,6 +367,80 @@ public class ReferralService {
         return referralMapper.countByStatus(status);
     }
     
+    /**
+     * 设置转诊默认值
+     */
+    private void applyDefaults(Referral referral) {
+        if (referral.getReferralDate() == null) {
+            referral.setReferralDate(LocalDateTime.now());
+        }
+        if (referral.getStatus() == null) {
+            referral.setStatus("待审批");
+        }
+        if (referral.getPriority() == null) {
+            referral.setPriority("普通");
+        }
+    }
+    
+    /**
+     * 批量创建的单项校验（字段约束 + 业务规则），返回错误信息或 null
+     */
+    private String validateForBatch(Referral referral) {
+        applyDefaults(referral);
+        Set<ConstraintViolation<Referral>> violations = validator.validate(referral);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            validateReferral(referral);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+    
+    private void checkBatchSize(int size) {
+        if (size == 0) {
+            throw new IllegalArgumentException("批量操作列表不能为空");
+        }
+        if (size > batchMaxSize) {
+            throw new IllegalArgumentException("单次批量操作不能超过 " + batchMaxSize + " 条");
+        }
+    }
+    
+    private static long countSuccess(List<ReferralBatchItemResult> results) {
+        return results.stream().filter(ReferralBatchItemResult::isSuccess).count();
+    }
+    
+    /**
+     * 从名称缓存补充医生、医院名称
+     */
+    private List<ReferralSummary> withNames(List<ReferralSummary> referrals) {
+        for (ReferralSummary referral : referrals) {
+            referral.setFromDoctorName(referenceNameCache.doctorName(referral.getFromDoctorId()));
+            referral.setToDoctorName(referenceNameCache.doctorName(referral.getToDoctorId()));
+            referral.setFromHospitalName(referenceNameCache.hospitalName(referral.getFromHospitalId()));
+            referral.setToHospitalName(referenceNameCache.hospitalName(referral.getToHospitalId()));
+        }
+        return referrals;
+    }
+    
+    /**
+     * 收集非空医生ID
+     */
+    private Set<Long> doctorIds(Long... ids) {
+        Set<Long> result = new HashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+    
     /**
      * 转诊业务验证
      */
@@ -0,0 +1,37 @@
+package com.medicalunion.statistics.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 工作台并发查询线程池配置
+ * Dashboard Executor Config - 工作台各数据区块并行查询使用的有界线程池
+ *
+ * 项目运行在 JDK 17，没有虚拟线程，使用有界队列 + CallerRunsPolicy：
+ * 线程池饱和时由请求线程自己执行，退化为串行而不是无限排队。
+ */
+@Configuration
+public class DashboardExecutorConfig {
+    
+    @Value("${statistics.dashboard.pool-size:16}")
+    private int poolSize;
+    
+    @Value("${statistics.dashboard.queue-capacity:200}")
+    private int queueCapacity;
+    
+    @Bean(name = "dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
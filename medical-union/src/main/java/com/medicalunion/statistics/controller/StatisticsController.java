@@ -64,14 +64,7 @@ public class StatisticsController {
     @GetMapping("/patients/severity-distribution")
     public Result<Object> getPatientSeverityDistribution() {
         try {
-            // TODO: 实现基于SQL的统计查询
-            // 这里提供一个模拟的返回值
-            java.util.Map<String, Object> distribution = new java.util.HashMap<>();
-            distribution.put("轻症", 120);
-            distribution.put("中症", 80);
-            distribution.put("重症", 45);
-            distribution.put("危重症", 15);
-            distribution.put("total", 260);
+            java.util.Map<String, Object> distribution = statisticsService.getPatientSeverityDistribution();
             
             return Result.success("获取患者病情分布成功", distribution);
         } catch (Exception e) {
@@ -87,15 +80,7 @@ public class StatisticsController {
     @GetMapping("/referrals/status-distribution")
     public Result<Object> getReferralStatusDistribution() {
         try {
-            // TODO: 实现基于SQL的统计查询
-            java.util.Map<String, Object> distribution = new java.util.HashMap<>();
-            distribution.put("待审批", 25);
-            distribution.put("已审批", 40);
-            distribution.put("已接收", 30);
-            distribution.put("已完成", 85);
-            distribution.put("已拒绝", 8);
-            distribution.put("已取消", 5);
-            distribution.put("total", 193);
+            java.util.Map<String, Object> distribution = statisticsService.getReferralStatusDistribution();
             
             return Result.success("获取转诊状态分布成功", distribution);
         } catch (Exception e) {
@@ -111,18 +96,7 @@ public class StatisticsController {
     @GetMapping("/hospitals/{hospitalId}/patients")
     public Result<Object> getHospitalPatientStatistics(@PathVariable @NotNull Long hospitalId) {
         try {
-            // TODO: 实现基于医院的患者统计
-            java.util.Map<String, Object> statistics = new java.util.HashMap<>();
-            statistics.put("hospitalId", hospitalId);
-            statistics.put("totalPatients", 180);
-            statistics.put("newPatientsThisMonth", 25);
-            statistics.put("activePatientsThisWeek", 65);
-            statistics.put("severityDistribution", java.util.Map.of(
-                "轻症", 90,
-                "中症", 60,
-                "重症", 25,
-                "危重症", 5
-            ));
+            java.util.Map<String, Object> statistics = statisticsService.getHospitalPatientStatistics(hospitalId);
             
             return Result.success("获取医院患者统计成功", statistics);
         } catch (Exception e) {
@@ -0,0 +1,21 @@
+package com.medicalunion.statistics.dto;
+
+import lombok.Data;
+
+/**
+ * 分组计数结果
+ * Group Count - GROUP BY 查询的单个分组
+ */
+@Data
+public class GroupCount {
+    
+    /**
+     * 分组键（如病情严重度、转诊状态）
+     */
+    private String name;
+    
+    /**
+     * 分组计数
+     */
+    private Long count;
+}
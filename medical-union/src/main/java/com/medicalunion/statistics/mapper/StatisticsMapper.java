@@ -0,0 +1,99 @@
+package com.medicalunion.statistics.mapper;
+
+import com.medicalunion.statistics.dto.GroupCount;
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 统计数据访问接口
+ * Statistics Mapper Interface - 聚合查询与汇总表维护
+ */
+@Mapper
+public interface StatisticsMapper {
+    
+    /**
+     * 获取数据库当前时间，作为汇总表增量刷新的水位
+     */
+    @Select("SELECT NOW()")
+    LocalDateTime selectDbNow();
+    
+    /**
+     * 按病情严重度统计患者数
+     */
+    List<GroupCount> countPatientsBySeverity();
+    
+    /**
+     * 按状态统计转诊数
+     */
+    List<GroupCount> countReferralsByStatus();
+    
+    /**
+     * 统计指定时间之后新建的患者数
+     */
+    long countPatientsCreatedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * 统计医生指定时间之后有就诊记录的患者数
+     */
+    long countActivePatientsByDoctorSince(@Param("doctorId") Long doctorId,
+                                          @Param("since") LocalDateTime since);
+    
+    /**
+     * 统计医院指定时间之后有就诊记录的患者数
+     */
+    long countActivePatientsByHospitalSince(@Param("hospitalId") Long hospitalId,
+                                            @Param("since") LocalDateTime since);
+    
+    // ==================== 汇总表读取 ====================
+    
+    /**
+     * 从汇总表按病情严重度统计医院患者数
+     */
+    List<GroupCount> sumHospitalPatientsBySeverity(@Param("hospitalId") Long hospitalId);
+    
+    /**
+     * 从汇总表统计医院指定日期之后新建的患者数
+     */
+    long sumHospitalPatientsSince(@Param("hospitalId") Long hospitalId,
+                                  @Param("since") LocalDate since);
+    
+    /**
+     * 从汇总表按状态统计医院转诊数（转出与转入合计）
+     */
+    List<GroupCount> sumHospitalReferralsByStatus(@Param("hospitalId") Long hospitalId);
+    
+    // ==================== 汇总表维护 ====================
+    
+    /**
+     * 查询指定时间之后有变更的患者所属创建日期
+     */
+    List<LocalDate> findTouchedPatientDays(@Param("since") LocalDateTime since);
+    
+    /**
+     * 查询指定时间之后有变更的转诊所属创建日期
+     */
+    List<LocalDate> findTouchedReferralDays(@Param("since") LocalDateTime since);
+    
+    /**
+     * 删除指定日期的患者汇总，days 为空时删除全部
+     */
+    int deletePatientRollup(@Param("days") List<LocalDate> days);
+    
+    /**
+     * 按 医院/日期/病情严重度 重算患者汇总，days 为空时全量重算
+     */
+    int insertPatientRollup(@Param("days") List<LocalDate> days);
+    
+    /**
+     * 删除指定日期的转诊汇总，days 为空时删除全部
+     */
+    int deleteReferralRollup(@Param("days") List<LocalDate> days);
+    
+    /**
+     * 按 医院/日期/方向/状态 重算转诊汇总，days 为空时全量重算
+     */
+    int insertReferralRollup(@Param("days") List<LocalDate> days);
+}
@@ -0,0 +1,85 @@
+package com.medicalunion.statistics.service;
+
+import com.medicalunion.common.cache.LocalCache;
+import com.medicalunion.patient.event.PatientChangedEvent;
+import com.medicalunion.patient.event.PatientsImportedEvent;
+import com.medicalunion.referral.event.ReferralChangedEvent;
+import com.medicalunion.statistics.dto.DoctorDashboardDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.Function;
+
+/**
+ * 医生工作台缓存
+ * Doctor Dashboard Cache - 按医生缓存工作台数据，转诊/患者变更提交后失效
+ *
+ * 命中率等指标通过 /actuator/metrics/cache.gets?tag=cache:doctorDashboard 查看
+ */
+@Slf4j
+@Component
+public class DoctorDashboardCache {
+    
+    private final LocalCache<Long, DoctorDashboardDTO> cache;
+    
+    public DoctorDashboardCache(MeterRegistry meterRegistry,
+                                @Value("${statistics.dashboard.cache.ttl-ms:30000}") long ttlMillis,
+                                @Value("${statistics.dashboard.cache.max-size:5000}") int maxSize) {
+        this.cache = new LocalCache<Long, DoctorDashboardDTO>(ttlMillis, maxSize)
+                .registerMetrics(meterRegistry, "doctorDashboard");
+    }
+    
+    /**
+     * 读取医生工作台，未命中时调用 loader 加载；存在缺失区块（超时或失败）的结果不缓存
+     */
+    public DoctorDashboardDTO get(Long doctorId, Function<Long, DoctorDashboardDTO> loader) {
+        return cache.get(doctorId, loader, DoctorDashboardCache::isComplete);
+    }
+    
+    private static boolean isComplete(DoctorDashboardDTO dashboard) {
+        return dashboard.getDoctorInfo() != null
+                && dashboard.getPatientStatistics() != null
+                && dashboard.getReferralStatistics() != null
+                && dashboard.getTodayVisitStatistics() != null;
+    }
+    
+    /**
+     * 转诊变更：只影响转出、转入医生的工作台
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferralChanged(ReferralChangedEvent event) {
+        event.getDoctorIds().forEach(cache::invalidate);
+        log.debug("转诊变更，失效医生工作台缓存, referralId: {}, doctorIds: {}",
+                event.getReferralId(), event.getDoctorIds());
+    }
+    
+    /**
+     * 患者变更：患者统计为全局口径，失效全部医生工作台
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        cache.invalidateAll();
+        log.debug("患者变更，失效全部医生工作台缓存, patientId: {}", event.getPatientId());
+    }
+    
+    /**
+     * 患者批量导入：每个批次失效一次
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientsImported(PatientsImportedEvent event) {
+        cache.invalidateAll();
+        log.debug("患者批量导入，失效全部医生工作台缓存, 新建 {} 个", event.getPatientIds().size());
+    }
+    
+    /**
+     * 定期清理过期条目，释放长时间未访问医生的缓存
+     */
+    @Scheduled(fixedDelayString = "${statistics.dashboard.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        cache.purgeExpired();
+    }
+}
@@ -0,0 +1,97 @@
+package com.medicalunion.statistics.service;
+
+import com.medicalunion.statistics.mapper.StatisticsMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 统计汇总表维护服务
+ * Statistics Rollup Service - 增量刷新 stat_patient_daily / stat_referral_daily
+ *
+ * 每次刷新只重算自上次水位以来有变更的创建日期，看板读取汇总表的代价与分组数成正比，
+ * 与明细行数无关。硬删除不会更新 updated_at，由每日全量重建兜底。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatisticsRollupService {
+    
+    /**
+     * 水位回退量，覆盖刷新期间并发提交的事务
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(1);
+    
+    /**
+     * 单次重算的日期数上限，避免 IN 列表过长
+     */
+    private static final int DAYS_PER_BATCH = 100;
+    
+    private final StatisticsMapper statisticsMapper;
+    
+    /**
+     * 上次刷新时的数据库时间，为空表示尚未完成首次全量重建
+     */
+    private volatile LocalDateTime watermark;
+    
+    /**
+     * 增量刷新汇总表
+     */
+    @Scheduled(fixedDelayString = "${statistics.rollup.refresh-interval-ms:300000}",
+               initialDelayString = "${statistics.rollup.initial-delay-ms:10000}")
+    @Transactional
+    public void refresh() {
+        LocalDateTime now = statisticsMapper.selectDbNow();
+        if (watermark == null) {
+            rebuild();
+            watermark = now;
+            return;
+        }
+        
+        LocalDateTime since = watermark.minus(WATERMARK_OVERLAP);
+        List<LocalDate> patientDays = statisticsMapper.findTouchedPatientDays(since);
+        List<LocalDate> referralDays = statisticsMapper.findTouchedReferralDays(since);
+        
+        for (int i = 0; i < patientDays.size(); i += DAYS_PER_BATCH) {
+            List<LocalDate> batch = patientDays.subList(i, Math.min(i + DAYS_PER_BATCH, patientDays.size()));
+            statisticsMapper.deletePatientRollup(batch);
+            statisticsMapper.insertPatientRollup(batch);
+        }
+        for (int i = 0; i < referralDays.size(); i += DAYS_PER_BATCH) {
+            List<LocalDate> batch = referralDays.subList(i, Math.min(i + DAYS_PER_BATCH, referralDays.size()));
+            statisticsMapper.deleteReferralRollup(batch);
+            statisticsMapper.insertReferralRollup(batch);
+        }
+        
+        watermark = now;
+        if (!patientDays.isEmpty() || !referralDays.isEmpty()) {
+            log.info("统计汇总增量刷新完成, 患者日期数: {}, 转诊日期数: {}", patientDays.size(), referralDays.size());
+        }
+    }
+    
+    /**
+     * 每日全量重建汇总表
+     */
+    @Scheduled(cron = "${statistics.rollup.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        LocalDateTime now = statisticsMapper.selectDbNow();
+        rebuild();
+        watermark = now;
+    }
+    
+    private void rebuild() {
+        statisticsMapper.deletePatientRollup(null);
+        int patientRows = statisticsMapper.insertPatientRollup(null);
+        statisticsMapper.deleteReferralRollup(null);
+        int referralRows = statisticsMapper.insertReferralRollup(null);
+        log.info("统计汇总全量重建完成, 患者汇总行: {}, 转诊汇总行: {}", patientRows, referralRows);
+    }
+}
@@ -1,16 +1,30 @@
 package com.medicalunion.statistics.service;
 
 import com.medicalunion.patient.mapper.PatientMapper;
+import com.medicalunion.referral.dto.DoctorReferralCounts;
+import com.medicalunion.referral.dto.ReferralSummary;
 import com.medicalunion.referral.mapper.ReferralMapper;
 import com.medicalunion.statistics.dto.DoctorDashboardDTO;
+import com.medicalunion.statistics.dto.GroupCount;
 import com.medicalunion.statistics.dto.PatientDashboardDTO;
+import com.medicalunion.statistics.mapper.StatisticsMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * 统计服务类
@@ -23,27 +37,51 @@ public class StatisticsService {
     
     private final PatientMapper patientMapper;
     private final ReferralMapper referralMapper;
+    private final StatisticsMapper statisticsMapper;
+    private final Executor dashboardExecutor;
+    private final DoctorDashboardCache doctorDashboardCache;
     // TODO: 添加VisitMapper和DoctorMapper依赖
     
     /**
-     * 获取医生工作台数据
+     * 工作台单个区块的查询超时时间(毫秒)
+     */
+    @Value("${statistics.dashboard.section-timeout-ms:2000}")
+    private long sectionTimeoutMs;
+    
+    /**
+     * 获取医生工作台数据（优先读取缓存）
      */
     public DoctorDashboardDTO getDoctorDashboard(Long doctorId) {
+        return doctorDashboardCache.get(doctorId, this::loadDoctorDashboard);
+    }
+    
+    /**
+     * 查询医生工作台数据
+     * 各区块在 dashboardExecutor 上并行查询，单个区块超时或失败时该区块返回 null
+     */
+    private DoctorDashboardDTO loadDoctorDashboard(Long doctorId) {
         try {
-            DoctorDashboardDTO dashboard = new DoctorDashboardDTO();
-            
             // 医生基本信息
-            dashboard.setDoctorInfo(getDoctorInfo(doctorId));
+            CompletableFuture<DoctorDashboardDTO.DoctorInfo> doctorInfo =
+                    section("doctorInfo", () -> getDoctorInfo(doctorId));
             
             // 患者统计信息
-            dashboard.setPatientStatistics(getPatientStatistics(doctorId));
+            CompletableFuture<DoctorDashboardDTO.PatientStatistics> patientStatistics =
+                    section("patientStatistics", () -> getPatientStatistics(doctorId));
             
             // 转诊统计信息
-            dashboard.setReferralStatistics(getReferralStatistics(doctorId));
+            CompletableFuture<DoctorDashboardDTO.ReferralStatistics> referralStatistics =
+                    section("referralStatistics", () -> getReferralStatistics(doctorId));
             
             // 今日就诊统计
-            dashboard.setTodayVisitStatistics(getTodayVisitStatistics(doctorId));
+            CompletableFuture<DoctorDashboardDTO.TodayVisitStatistics> todayVisitStatistics =
+                    section("todayVisitStatistics", () -> getTodayVisitStatistics(doctorId));
             
+            DoctorDashboardDTO dashboard = new DoctorDashboardDTO();
+            dashboard.setDoctorInfo(doctorInfo.join());
+            dashboard.setPatientStatistics(patientStatistics.join());
+            dashboard.setReferralStatistics(referralStatistics.join());
+            dashboard.setTodayVisitStatistics(todayVisitStatistics.join());
             return dashboard;
         } catch (Exception e) {
             log.error("获取医生工作台数据失败, doctorId: {}", doctorId, e);
@@ -53,23 +91,36 @@ public class StatisticsService {
     
     /**
      * 获取患者个人中心数据
+     * 患者基本信息为必需区块，查询失败时整体失败；其余区块超时或失败时返回 null
      */
     public PatientDashboardDTO getPatientDashboard(Long patientId) {
         try {
-            PatientDashboardDTO dashboard = new PatientDashboardDTO();
-            
             // 患者基本信息
-            dashboard.setPatientInfo(getPatientInfo(patientId));
+            CompletableFuture<PatientDashboardDTO.PatientInfo> patientInfo =
+                    CompletableFuture.supplyAsync(() -> getPatientInfo(patientId), dashboardExecutor)
+                            .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS);
             
             // 就诊历史统计
-            dashboard.setVisitHistory(getVisitHistory(patientId));
+            CompletableFuture<PatientDashboardDTO.VisitHistory> visitHistory =
+                    section("visitHistory", () -> getVisitHistory(patientId));
             
             // 转诊记录
-            dashboard.setReferralHistory(getReferralHistory(patientId));
+            CompletableFuture<PatientDashboardDTO.ReferralHistory> referralHistory =
+                    section("referralHistory", () -> getReferralHistory(patientId));
             
             // 健康提醒
-            dashboard.setHealthReminders(getHealthReminders(patientId));
+            CompletableFuture<List<PatientDashboardDTO.HealthReminder>> healthReminders =
+                    section("healthReminders", () -> getHealthReminders(patientId));
             
+            PatientDashboardDTO dashboard = new PatientDashboardDTO();
+            try {
+                dashboard.setPatientInfo(patientInfo.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            dashboard.setVisitHistory(visitHistory.join());
+            dashboard.setReferralHistory(referralHistory.join());
+            dashboard.setHealthReminders(healthReminders.join());
             return dashboard;
         } catch (Exception e) {
             log.error("获取患者个人中心数据失败, patientId: {}", patientId, e);
@@ -77,6 +128,62 @@ public class StatisticsService {
         }
     }
     
+    /**
+     * 异步查询工作台的一个区块，超时或异常时记录日志并返回 null
+     */
+    private <T> CompletableFuture<T> section(String name, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, dashboardExecutor)
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("工作台区块查询超时: {}, 超时时间: {}ms", name, sectionTimeoutMs);
+                    } else {
+                        log.warn("工作台区块查询失败: {}", name, cause);
+                    }
+                    return null;
+                });
+    }
+    
+    /**
+     * 获取患者病情严重度分布
+     */
+    public Map<String, Object> getPatientSeverityDistribution() {
+        return toDistribution(statisticsMapper.countPatientsBySeverity());
+    }
+    
+    /**
+     * 获取转诊状态分布
+     */
+    public Map<String, Object> getReferralStatusDistribution() {
+        return toDistribution(statisticsMapper.countReferralsByStatus());
+    }
+    
+    /**
+     * 获取医院患者统计（读取汇总表）
+     */
+    public Map<String, Object> getHospitalPatientStatistics(Long hospitalId) {
+        List<GroupCount> severity = statisticsMapper.sumHospitalPatientsBySeverity(hospitalId);
+        Map<String, Long> severityDistribution = new LinkedHashMap<>();
+        long totalPatients = 0;
+        for (GroupCount g : severity) {
+            severityDistribution.put(g.getName(), g.getCount());
+            totalPatients += g.getCount();
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hospitalId", hospitalId);
+        statistics.put("totalPatients", totalPatients);
+        statistics.put("newPatientsThisMonth",
+                statisticsMapper.sumHospitalPatientsSince(hospitalId, startOfMonth().toLocalDate()));
+        statistics.put("activePatientsThisWeek",
+                statisticsMapper.countActivePatientsByHospitalSince(hospitalId, startOfWeek()));
+        statistics.put("severityDistribution", severityDistribution);
+        statistics.put("referralStatusDistribution",
+                toDistribution(statisticsMapper.sumHospitalReferralsByStatus(hospitalId)));
+        return statistics;
+    }
+    
     /**
      * 获取医生基本信息
      */
@@ -101,19 +208,18 @@ public class StatisticsService {
         // 总患者数 - 这里简化处理，实际应该根据医生查询其负责的患者
         stats.setTotalPatients(patientMapper.count());
         
-        // 病情严重度分布 - 模拟数据
-        Map<String, Long> severityDistribution = new HashMap<>();
-        severityDistribution.put("轻症", 50L);
-        severityDistribution.put("中症", 30L);
-        severityDistribution.put("重症", 15L);
-        severityDistribution.put("危重症", 5L);
+        // 病情严重度分布
+        Map<String, Long> severityDistribution = new LinkedHashMap<>();
+        statisticsMapper.countPatientsBySeverity()
+                .forEach(g -> severityDistribution.put(g.getName(), g.getCount()));
         stats.setSeverityDistribution(severityDistribution);
         
-        // 本月新患者数 - 模拟数据
-        stats.setNewPatientsThisMonth(10L);
+        // 本月新患者数
+        stats.setNewPatientsThisMonth(statisticsMapper.countPatientsCreatedSince(startOfMonth()));
         
-        // 本周活跃患者数 - 模拟数据
-        stats.setActivePatientsThisWeek(25L);
+        // 本周活跃患者数（本周有就诊记录的患者）
+        stats.setActivePatientsThisWeek(
+                statisticsMapper.countActivePatientsByDoctorSince(doctorId, startOfWeek()));
         
         return stats;
     }
@@ -124,17 +230,19 @@ public class StatisticsService {
     private DoctorDashboardDTO.ReferralStatistics getReferralStatistics(Long doctorId) {
         DoctorDashboardDTO.ReferralStatistics stats = new DoctorDashboardDTO.ReferralStatistics();
         
+        DoctorReferralCounts counts = referralMapper.countByDoctor(doctorId, startOfMonth());
+        
         // 待处理转诊
-        stats.setPendingReferrals(referralMapper.countByStatus("待审批"));
+        stats.setPendingReferrals(counts.getPending());
         
         // 转出转诊
-        stats.setOutgoingReferrals((long) referralMapper.findByFromDoctorId(doctorId).size());
+        stats.setOutgoingReferrals(counts.getOutgoing());
         
         // 转入转诊
-        stats.setIncomingReferrals((long) referralMapper.findByToDoctorId(doctorId).size());
+        stats.setIncomingReferrals(counts.getIncoming());
         
-        // 本月完成转诊 - 模拟数据
-        stats.setCompletedReferralsThisMonth(8L);
+        // 本月完成转诊
+        stats.setCompletedReferralsThisMonth(counts.getCompletedThisMonth());
         
         return stats;
     }
@@ -190,7 +298,7 @@ public class StatisticsService {
      * 获取转诊历史统计
      */
     private PatientDashboardDTO.ReferralHistory getReferralHistory(Long patientId) {
-        List<com.medicalunion.referral.entity.Referral> referrals = referralMapper.findByPatientId(patientId);
+        List<ReferralSummary> referrals = referralMapper.findByPatientId(patientId);
         
         PatientDashboardDTO.ReferralHistory referralHistory = new PatientDashboardDTO.ReferralHistory();
         referralHistory.setTotalReferrals((long) referrals.size());
@@ -221,6 +329,28 @@ public class StatisticsService {
         );
     }
     
+    /**
+     * 分组计数转换为分布，附带 total 合计
+     */
+    private Map<String, Object> toDistribution(List<GroupCount> groups) {
+        Map<String, Object> distribution = new LinkedHashMap<>();
+        long total = 0;
+        for (GroupCount g : groups) {
+            distribution.put(g.getName(), g.getCount());
+            total += g.getCount();
+        }
+        distribution.put("total", total);
+        return distribution;
+    }
+    
+    private LocalDateTime startOfMonth() {
+        return LocalDate.now().withDayOfMonth(1).atStartOfDay();
+    }
+    
+    private LocalDateTime startOfWeek() {
+        return LocalDate.now().with(DayOfWeek.MONDAY).atStartOfDay();
+    }
+    
     private PatientDashboardDTO.HealthReminder createHealthReminder(String type, String message, String date, String priority) {
         PatientDashboardDTO.HealthReminder reminder = new PatientDashboardDTO.HealthReminder();
         reminder.setType(type);
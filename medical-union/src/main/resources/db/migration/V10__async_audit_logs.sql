@@ -0,0 +1,261 @@
+-- V10__async_audit_logs.sql
+-- Moves audit_logs inserts out of the stored procedures. The application now records these
+-- entries through AuditLogWriter after the transaction commits and batch-inserts them from a
+-- background writer, so the procedures no longer hold appointment_slots / patients row locks
+-- while writing audit rows. Procedure signatures and result codes are unchanged.
+
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS sp_safe_create_patient$$
+CREATE PROCEDURE sp_safe_create_patient(
+  IN p_name VARCHAR(255),
+  IN p_id_card VARCHAR(64),
+  IN p_gender CHAR(1),
+  IN p_birth_date DATE,
+  IN p_phone VARCHAR(64),
+  IN p_address VARCHAR(512),
+  IN p_medical_card_no VARCHAR(128),
+  IN p_emergency_contact VARCHAR(255),
+  IN p_emergency_phone VARCHAR(64),
+  IN p_severity_level VARCHAR(16),
+  IN p_hospital_id BIGINT,
+  IN p_department_id BIGINT,
+  OUT p_new_id BIGINT,
+  OUT p_result_code INT,
+  OUT p_result_message VARCHAR(255)
+)
+proc_block: BEGIN   -- <<< 定义一个可 LEAVE 的标签 block
+  DECLARE v_exists INT DEFAULT 0;
+
+  DECLARE EXIT HANDLER FOR SQLEXCEPTION
+  BEGIN
+    ROLLBACK;
+    GET DIAGNOSTICS CONDITION 1
+      @sqlstate = RETURNED_SQLSTATE, @msg = MESSAGE_TEXT;
+    SET p_result_code = -1;
+    SET p_result_message = CONCAT('SQLSTATE=', @sqlstate, ' MSG=', @msg);
+  END;
+
+  START TRANSACTION;
+
+  -- 如果传入了身份证号，检查是否已存在（避免重复创建）
+  IF p_id_card IS NOT NULL AND TRIM(p_id_card) <> '' THEN
+    SELECT COUNT(*) INTO v_exists FROM patients WHERE id_card = p_id_card;
+    IF v_exists > 0 THEN
+      ROLLBACK;
+      SET p_result_code = -4;
+      SET p_result_message = 'Duplicate id_card';
+      LEAVE proc_block;  -- <<< 跳出整个存储过程
+    END IF;
+  END IF;
+
+  INSERT INTO patients (
+    name, id_card, gender, birth_date, phone, address, medical_history,
+    severity_level, hospital_id, department_id, created_at
+  )
+  VALUES (
+    p_name, p_id_card, p_gender, p_birth_date, p_phone, p_address, NULL,
+    p_severity_level, p_hospital_id, p_department_id, CURRENT_TIMESTAMP
+  );
+
+  SET p_new_id = LAST_INSERT_ID();
+
+  COMMIT;
+  SET p_result_code = 0;
+  SET p_result_message = 'OK';
+
+END proc_block$$
+
+DROP PROCEDURE IF EXISTS sp_safe_update_patient$$
+CREATE PROCEDURE sp_safe_update_patient(
+  IN p_patient_id BIGINT,
+  IN p_name VARCHAR(255),
+  IN p_phone VARCHAR(64),
+  IN p_address VARCHAR(512),
+  OUT p_result_code INT,
+  OUT p_result_message VARCHAR(255)
+)
+BEGIN
+  DECLARE v_exists INT DEFAULT 0;
+
+  DECLARE EXIT HANDLER FOR SQLEXCEPTION
+  BEGIN
+    ROLLBACK;
+    GET DIAGNOSTICS CONDITION 1
+      @sqlstate = RETURNED_SQLSTATE, @msg = MESSAGE_TEXT;
+    SET p_result_code = -1;
+    SET p_result_message = CONCAT('SQLSTATE=', @sqlstate, ' MSG=', @msg);
+  END;
+
+  START TRANSACTION;
+  SELECT COUNT(*) INTO v_exists FROM patients WHERE id = p_patient_id;
+
+  IF v_exists = 0 THEN
+    ROLLBACK;
+    SET p_result_code = -2;
+    SET p_result_message = 'Patient not found';
+  ELSE
+    UPDATE patients
+    SET name = p_name,
+        phone = p_phone,
+        address = p_address,
+        updated_at = CURRENT_TIMESTAMP
+    WHERE id = p_patient_id;
+
+    COMMIT;
+    SET p_result_code = 0;
+    SET p_result_message = 'OK';
+  END IF;
+END$$
+
+DROP PROCEDURE IF EXISTS sp_safe_delete_patient$$
+CREATE PROCEDURE sp_safe_delete_patient(
+  IN p_patient_id BIGINT,
+  OUT p_result_code INT,
+  OUT p_result_message VARCHAR(255)
+)
+BEGIN
+  DECLARE v_cnt INT DEFAULT 0;
+
+  DECLARE EXIT HANDLER FOR SQLEXCEPTION
+  BEGIN
+    ROLLBACK;
+    GET DIAGNOSTICS CONDITION 1
+      @sqlstate = RETURNED_SQLSTATE, @msg = MESSAGE_TEXT;
+    SET p_result_code = -1;
+    SET p_result_message = CONCAT('SQLSTATE=', @sqlstate, ' MSG=', @msg);
+  END;
+
+  START TRANSACTION;
+  SELECT COUNT(*) INTO v_cnt FROM visits WHERE patient_id = p_patient_id;
+
+  IF v_cnt > 0 THEN
+    ROLLBACK;
+    SET p_result_code = -3;
+    SET p_result_message = 'Cannot delete patient with visits';
+  ELSE
+    DELETE FROM patients WHERE id = p_patient_id;
+
+    COMMIT;
+    SET p_result_code = 0;
+    SET p_result_message = 'OK';
+  END IF;
+END$$
+
+DROP PROCEDURE IF EXISTS `sp_create_appointment`$$
+CREATE PROCEDURE `sp_create_appointment`(
+  IN p_patient_id BIGINT,
+  IN p_booking_user_id BIGINT,
+  IN p_family_member_id BIGINT,
+  IN p_slot_id BIGINT,
+  IN p_appointment_type VARCHAR(16),
+  IN p_complaint TEXT,
+  IN p_is_insurance TINYINT,
+  OUT p_appointment_id BIGINT,
+  OUT p_result_code INT,
+  OUT p_result_message VARCHAR(255)
+)
+proc_block: BEGIN
+  DECLARE v_rem INT DEFAULT 0;
+  DECLARE v_slot_date DATE;
+  DECLARE v_start TIME;
+
+  DECLARE EXIT HANDLER FOR SQLEXCEPTION
+  BEGIN
+    ROLLBACK;
+    GET DIAGNOSTICS CONDITION 1 @sqlstate = RETURNED_SQLSTATE, @msg = MESSAGE_TEXT;
+    SET p_result_code = -1;
+    SET p_result_message = CONCAT('SQLSTATE=', @sqlstate, ' MSG=', @msg);
+  END;
+
+  START TRANSACTION;
+
+  -- check slot exists and remaining > 0
+  SELECT remaining, slot_date, start_time INTO v_rem, v_slot_date, v_start FROM appointment_slots WHERE id = p_slot_id FOR UPDATE;
+  IF v_rem IS NULL THEN
+    ROLLBACK;
+    SET p_result_code = -2;
+    SET p_result_message = 'Slot not found';
+    LEAVE proc_block;
+  END IF;
+
+  IF v_rem <= 0 THEN
+    ROLLBACK;
+    SET p_result_code = -3;
+    SET p_result_message = 'No tickets available';
+    LEAVE proc_block;
+  END IF;
+
+  -- decrement remaining
+  UPDATE appointment_slots SET remaining = remaining - 1 WHERE id = p_slot_id;
+
+  INSERT INTO appointments (patient_id, booking_user_id, family_member_id, doctor_id, hospital_id, department_id, slot_id, appointment_type, visit_datetime, complaint, is_insurance, status, created_by)
+  SELECT p_patient_id, p_booking_user_id, p_family_member_id, doctor_id, hospital_id, department_id, id, p_appointment_type, TIMESTAMP(slot_date, start_time), p_complaint, p_is_insurance, 'CONFIRMED', p_booking_user_id FROM appointment_slots WHERE id = p_slot_id;
+
+  SET p_appointment_id = LAST_INSERT_ID();
+
+  COMMIT;
+  SET p_result_code = 0;
+  SET p_result_message = 'OK';
+END proc_block$$
+
+DROP PROCEDURE IF EXISTS `sp_cancel_appointment`$$
+CREATE PROCEDURE `sp_cancel_appointment`(
+  IN p_appointment_id BIGINT,
+  IN p_requesting_user BIGINT,
+  OUT p_refund_amount DECIMAL(10,2),
+  OUT p_result_code INT,
+  OUT p_result_message VARCHAR(255)
+)
+proc_block2: BEGIN
+  DECLARE v_status VARCHAR(32);
+  DECLARE v_slot_id BIGINT;
+  DECLARE v_scheduled DATETIME;
+
+  DECLARE EXIT HANDLER FOR SQLEXCEPTION
+  BEGIN
+    ROLLBACK;
+    GET DIAGNOSTICS CONDITION 1 @sqlstate = RETURNED_SQLSTATE, @msg = MESSAGE_TEXT;
+    SET p_result_code = -1;
+    SET p_result_message = CONCAT('SQLSTATE=', @sqlstate, ' MSG=', @msg);
+  END;
+
+  START TRANSACTION;
+
+  SELECT status, slot_id, visit_datetime INTO v_status, v_slot_id, v_scheduled FROM appointments WHERE id = p_appointment_id FOR UPDATE;
+  IF v_status IS NULL THEN
+    ROLLBACK;
+    SET p_result_code = -2;
+    SET p_result_message = 'Appointment not found';
+    LEAVE proc_block2;
+  END IF;
+
+  IF v_status NOT IN ('CONFIRMED','PENDING') THEN
+    ROLLBACK;
+    SET p_result_code = -3;
+    SET p_result_message = 'Cannot cancel in current state';
+    LEAVE proc_block2;
+  END IF;
+
+  -- simple refund policy: full refund if cancelled >24 hours before scheduled; partial / none otherwise
+  SET p_refund_amount = 0.00;
+  IF v_scheduled IS NOT NULL THEN
+    IF TIMESTAMPDIFF(HOUR, NOW(), v_scheduled) > 24 THEN
+      -- try to mark payment for refund (higher level integration required)
+      SET p_refund_amount = (SELECT IFNULL(amount,0.00) FROM appointment_payments WHERE appointment_id = p_appointment_id AND status = 'PAID' LIMIT 1);
+    END IF;
+  END IF;
+
+  UPDATE appointments SET status = 'CANCELLED', updated_at = CURRENT_TIMESTAMP WHERE id = p_appointment_id;
+
+  -- restore slot remaining if linked
+  IF v_slot_id IS NOT NULL THEN
+    UPDATE appointment_slots SET remaining = remaining + 1 WHERE id = v_slot_id;
+  END IF;
+
+  COMMIT;
+  SET p_result_code = 0;
+  SET p_result_message = 'OK';
+END proc_block2$$
+
+DELIMITER ;
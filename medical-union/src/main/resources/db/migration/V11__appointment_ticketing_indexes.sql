@@ -0,0 +1,7 @@
+-- V11__appointment_ticketing_indexes.sql
+-- Supports the in-memory slot ticketing engine (SlotTicketingService):
+-- - preload / reconciliation scan open slots by date range
+-- - booking results are looked up by ticket number once the appointment is persisted
+
+CREATE INDEX idx_slot_date_status ON appointment_slots(slot_date, status);
+CREATE INDEX idx_appointments_ticket ON appointments(ticket_number);
@@ -0,0 +1,38 @@
+-- V12__schedule_templates.sql
+-- Weekly schedule templates expanded into appointment_slots by ScheduleService.
+-- Re-generation is idempotent: a doctor has at most one slot per date and start time.
+--
+-- Before applying, check that existing slots do not violate the new unique key:
+--   SELECT doctor_id, slot_date, start_time, COUNT(*) FROM appointment_slots
+--   GROUP BY doctor_id, slot_date, start_time HAVING COUNT(*) > 1;
+
+-- --------------------------------------------------
+-- Table structure for schedule_templates
+-- one row per doctor, weekday and session (e.g. Monday 08:00-12:00 split into 15-minute slots)
+-- --------------------------------------------------
+DROP TABLE IF EXISTS `schedule_templates`;
+CREATE TABLE `schedule_templates` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `doctor_id` BIGINT NOT NULL,
+  `hospital_id` BIGINT NOT NULL,
+  `department_id` BIGINT NULL,
+  `day_of_week` TINYINT NOT NULL, -- 1 = Monday ... 7 = Sunday
+  `start_time` TIME NOT NULL,
+  `end_time` TIME NOT NULL,
+  `slot_minutes` INT NULL, -- NULL: the whole session is one slot
+  `slot_type` ENUM('普通','专家','特需') NOT NULL DEFAULT '普通',
+  `capacity` INT NOT NULL DEFAULT 1,
+  `price` DECIMAL(10,2) NULL DEFAULT 0.00,
+  `currency` VARCHAR(8) NULL DEFAULT 'CNY',
+  `active` TINYINT(1) NOT NULL DEFAULT 1,
+  `created_at` TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY(`id`),
+  INDEX `idx_template_doctor`(`doctor_id`, `day_of_week`),
+  INDEX `idx_template_hospital`(`hospital_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE `schedule_templates` ADD CONSTRAINT `fk_template_doctor` FOREIGN KEY (`doctor_id`) REFERENCES `doctors`(`id`) ON DELETE CASCADE ON UPDATE RESTRICT;
+ALTER TABLE `schedule_templates` ADD CONSTRAINT `fk_template_hospital` FOREIGN KEY (`hospital_id`) REFERENCES `hospitals`(`id`) ON DELETE CASCADE ON UPDATE RESTRICT;
+
+CREATE UNIQUE INDEX uk_slot_doctor_time ON appointment_slots(doctor_id, slot_date, start_time);
@@ -0,0 +1,6 @@
+-- V5__patients_keyset_index.sql
+-- Composite index backing keyset pagination on patients (GET /patients/page?after=<cursor>)
+-- The seek predicate `created_at < ? OR (created_at = ? AND id < ?)` ordered by
+-- (created_at DESC, id DESC) becomes a bounded index range scan, so deep pages cost the same as page 1.
+
+CREATE INDEX idx_patients_created_id ON patients(created_at, id);
@@ -0,0 +1,32 @@
+-- V6__statistics_rollup.sql
+-- Daily rollup tables for hospital statistics dashboards.
+-- Rows are maintained by StatisticsRollupService: days touched since the last refresh
+-- (detected via updated_at) are deleted and recomputed with a single GROUP BY, and a
+-- nightly full rebuild corrects rows removed by hard deletes.
+-- hospital_id = 0 holds rows whose hospital is unknown.
+
+CREATE TABLE IF NOT EXISTS stat_patient_daily (
+  hospital_id BIGINT NOT NULL,
+  stat_date DATE NOT NULL,
+  severity_level VARCHAR(32) NOT NULL,
+  patient_count BIGINT NOT NULL DEFAULT 0,
+  refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (hospital_id, stat_date, severity_level),
+  INDEX idx_stat_patient_date (stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS stat_referral_daily (
+  hospital_id BIGINT NOT NULL,
+  stat_date DATE NOT NULL,
+  direction ENUM('OUT','IN') NOT NULL,
+  status VARCHAR(32) NOT NULL,
+  referral_count BIGINT NOT NULL DEFAULT 0,
+  refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (hospital_id, stat_date, direction, status),
+  INDEX idx_stat_referral_date (stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- change detection and per-day recomputation
+CREATE INDEX idx_patients_updated_at ON patients(updated_at);
+CREATE INDEX idx_referrals_updated_at ON referrals(updated_at);
+CREATE INDEX idx_referrals_created_at ON referrals(created_at);
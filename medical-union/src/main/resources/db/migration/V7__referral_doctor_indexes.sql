@@ -0,0 +1,7 @@
+-- V7__referral_doctor_indexes.sql
+-- Covering indexes for ReferralMapper.countByDoctor (doctor dashboard referral counts).
+-- Each UNION ALL branch seeks on the doctor column and reads status / completion_date
+-- from the index without touching the clustered rows.
+
+CREATE INDEX idx_referrals_from_doctor_status ON referrals(from_doctor_id, status, completion_date);
+CREATE INDEX idx_referrals_to_doctor_status ON referrals(to_doctor_id, status, completion_date);
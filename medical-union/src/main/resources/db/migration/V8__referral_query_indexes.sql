@@ -0,0 +1,11 @@
+-- V8__referral_query_indexes.sql
+-- Composite indexes for GET /referrals/query (ReferralMapper.query).
+-- Each index leads with an equality filter and continues with created_at; InnoDB appends
+-- the primary key, so the (created_at DESC, id DESC) keyset order is read straight from
+-- the index and a page stops after LIMIT rows instead of sorting every match.
+-- Hospital filters get their own indexes in the next migration.
+
+CREATE INDEX idx_referrals_status_created ON referrals(status, created_at);
+CREATE INDEX idx_referrals_patient_created ON referrals(patient_id, created_at);
+CREATE INDEX idx_referrals_from_doctor_created ON referrals(from_doctor_id, created_at);
+CREATE INDEX idx_referrals_to_doctor_created ON referrals(to_doctor_id, created_at);
@@ -0,0 +1,8 @@
+-- V9__referral_hospital_indexes.sql
+-- Indexes for the two branches of ReferralMapper.findByHospitalId (and the hospital filter
+-- of ReferralMapper.query). Each branch seeks on one hospital column and reads rows in
+-- (created_at, id) order; replaces the OR predicate that fell back to a table scan.
+-- Benchmark procedure: docs/implementation/referral-hospital-query-benchmark.md
+
+CREATE INDEX idx_referrals_from_hospital_created ON referrals(from_hospital_id, created_at);
+CREATE INDEX idx_referrals_to_hospital_created ON referrals(to_hospital_id, created_at);
@@ -0,0 +1,164 @@
+package com.medicalunion.appointment.booking;
+
+import com.medicalunion.appointment.dto.AppointmentResult;
+import com.medicalunion.appointment.dto.BookingRequest;
+import com.medicalunion.appointment.mapper.AppointmentMapper;
+import com.medicalunion.appointment.mapper.AppointmentSlotMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预约模式基准测试
+ * Slot Booker Benchmark Test - 1/16/256 个并发预约线程直接调用两种 {@link SlotBooker}，争抢同一个号源
+ *
+ * 需要 MySQL 8 临时库（不要指向生产库），默认跳过，使用方法见 docs/implementation/appointment-booking-mode-benchmark.md。
+ * 号源容量为预约次数的一半，每轮同时覆盖扣减成功和已约满两种路径；
+ * 结束后校验 成功数 = capacity - remaining = 该号源的预约记录数。
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+class SlotBookerBenchmarkTest {
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    @Autowired
+    private AppointmentSlotMapper slotMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest(name = "{0} x {1}")
+    @CsvSource({
+            "procedure, 1", "procedure, 16", "procedure, 256",
+            "optimistic, 1", "optimistic, 16", "optimistic, 256"
+    })
+    void bookOneHotSlot(String mode, int bookers) throws Exception {
+        int attempts = Integer.getInteger("benchmark.bookings", 2000);
+        int capacity = attempts / 2;
+        long patientId = Long.getLong("benchmark.patient-id", 1L);
+        SlotBooker booker = "optimistic".equals(mode)
+                ? new OptimisticSlotBooker(appointmentMapper, slotMapper, transactionManager,
+                        new SimpleMeterRegistry(), 3, 20)
+                : new ProcedureSlotBooker(appointmentMapper);
+        long slotId = createSlot(capacity);
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(bookers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < bookers; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (next.getAndIncrement() < attempts) {
+                    BookingRequest request = new BookingRequest();
+                    request.setSlotId(slotId);
+                    request.setPatientId(patientId);
+                    request.setBookingUserId(patientId);
+                    AppointmentResult result;
+                    try {
+                        result = booker.book(request, "普通");
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    if (result.isSuccess()) {
+                        booked.incrementAndGet();
+                    } else if (Integer.valueOf(AppointmentResult.UNAVAILABLE).equals(result.getResultCode())) {
+                        soldOut.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        Integer remaining = jdbcTemplate.queryForObject(
+                "SELECT remaining FROM appointment_slots WHERE id = ?", Integer.class, slotId);
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM appointments WHERE slot_id = ?", Integer.class, slotId);
+        log.info("预约基准 - 模式: {}, 并发: {}, 成功: {}, 约满: {}, 异常: {}, 耗时: {}s, 吞吐: {}/s",
+                mode, bookers, booked.get(), soldOut.get(), failed.get(), String.format("%.2f", seconds),
+                String.format("%.1f", booked.get() / seconds));
+
+        assertTrue(remaining != null && remaining >= 0, "号源剩余数不能为负");
+        assertEquals(capacity - remaining, rows.intValue(), "capacity - remaining 必须等于预约记录数");
+        assertEquals(booked.get(), rows.intValue(), "成功数必须等于预约记录数");
+    }
+
+    private long createSlot(int capacity) {
+        long doctorId = Long.getLong("benchmark.doctor-id", 1L);
+        long hospitalId = Long.getLong("benchmark.hospital-id", 1L);
+        long departmentId = Long.getLong("benchmark.department-id", 1L);
+        // 每轮新建号源，随机日期和开始时间，避免与已有号源的唯一键 uk_slot_doctor_time 冲突
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(3650));
+        LocalTime startTime = LocalTime.ofSecondOfDay(random.nextInt(23 * 3600));
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO appointment_slots (doctor_id, hospital_id, department_id, slot_date, start_time,"
+                            + " end_time, capacity, remaining, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'OPEN')",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, doctorId);
+            ps.setLong(2, hospitalId);
+            ps.setLong(3, departmentId);
+            ps.setDate(4, Date.valueOf(date));
+            ps.setTime(5, Time.valueOf(startTime));
+            ps.setTime(6, Time.valueOf(startTime.plusMinutes(30)));
+            ps.setInt(7, capacity);
+            ps.setInt(8, capacity);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+}
@@ -0,0 +1,136 @@
+package com.medicalunion.appointment.ticketing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分段号源计数器并发测试
+ * Striped Slot Counter Test - 多线程同时取号、归还、调整后核对总数，验证不超卖、不丢号
+ */
+class StripedSlotCounterTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void splitsInitialAcrossStripes() {
+        StripedSlotCounter counter = new StripedSlotCounter(10, 4);
+        assertEquals(10, counter.available());
+
+        StripedSlotCounter empty = new StripedSlotCounter(0, 8);
+        assertEquals(0, empty.available());
+        assertFalse(empty.tryAcquire());
+    }
+
+    @Test
+    void adjustNeverRemovesMoreThanAvailable() {
+        StripedSlotCounter counter = new StripedSlotCounter(5, 4);
+        assertEquals(-5, counter.adjust(-8));
+        assertEquals(0, counter.available());
+        assertEquals(3, counter.adjust(3));
+        assertEquals(3, counter.available());
+    }
+
+    @Test
+    void concurrentAcquireNeverOversells() throws Exception {
+        int capacity = 10_000;
+        StripedSlotCounter counter = new StripedSlotCounter(capacity, 8);
+
+        List<Integer> acquired = runConcurrently(() -> {
+            int count = 0;
+            while (counter.tryAcquire()) {
+                count++;
+            }
+            return count;
+        });
+
+        assertEquals(capacity, sum(acquired));
+        assertEquals(0, counter.available());
+        assertFalse(counter.tryAcquire());
+    }
+
+    @Test
+    void concurrentAcquireReleaseAdjustKeepsTotals() throws Exception {
+        int initial = 1_000;
+        StripedSlotCounter counter = new StripedSlotCounter(initial, 8);
+
+        // 每个线程返回对计数器的净变化：取号 -1、归还 +1、调整按实际调整量
+        List<Integer> changes = runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int held = 0;
+            int change = 0;
+            for (int i = 0; i < 50_000; i++) {
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    if (counter.tryAcquire()) {
+                        held++;
+                        change--;
+                    }
+                } else if (op < 8) {
+                    if (held > 0) {
+                        counter.release();
+                        held--;
+                        change++;
+                    }
+                } else {
+                    int actual = counter.adjust(random.nextInt(-3, 4));
+                    assertTrue(actual >= -3 && actual <= 3);
+                    change += actual;
+                }
+            }
+            return change;
+        });
+
+        int expected = initial + sum(changes);
+        assertTrue(expected >= 0);
+        assertEquals(expected, counter.available());
+
+        int drained = 0;
+        while (counter.tryAcquire()) {
+            drained++;
+        }
+        assertEquals(expected, drained);
+    }
+
+    private static List<Integer> runConcurrently(Callable<Integer> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int sum(List<Integer> values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,135 @@
+package com.medicalunion.patient.importer;
+
+import com.medicalunion.patient.entity.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CSV 患者读取器测试
+ * CSV Patient Reader Test - 引号字段、字段内换行、CRLF、BOM 及错误行
+ */
+class CsvPatientReaderTest {
+
+    private static CsvPatientReader reader(String csv) throws IOException {
+        return new CsvPatientReader(new BufferedReader(new StringReader(csv)));
+    }
+
+    private static Patient nextPatient(CsvPatientReader reader) throws IOException {
+        ParsedRow row = reader.next();
+        assertNotNull(row);
+        assertNull(row.getError(), row.getError());
+        return row.getPatient();
+    }
+
+    @Test
+    void mapsColumnsByNormalizedName() throws IOException {
+        CsvPatientReader reader = reader("Name,ID_CARD,birthDate,hospital_id,unknown\n"
+                + "张三,110101199001011234,1990-01-01,3,x\n");
+        Patient patient = nextPatient(reader);
+        assertEquals("张三", patient.getName());
+        assertEquals("110101199001011234", patient.getIdCard());
+        assertEquals(LocalDate.of(1990, 1, 1), patient.getBirthDate());
+        assertEquals(3L, patient.getHospitalId());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void acceptsChineseHeader() throws IOException {
+        CsvPatientReader reader = reader("姓名,身份证号,联系电话\n李四,110101199001011235,13800000000\n");
+        Patient patient = nextPatient(reader);
+        assertEquals("李四", patient.getName());
+        assertEquals("13800000000", patient.getPhone());
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        CsvPatientReader reader = reader("name,address\n"
+                + "\"王五\",\"北京市海淀区, \"\"中关村\"\"大街1号\"\n");
+        Patient patient = nextPatient(reader);
+        assertEquals("王五", patient.getName());
+        assertEquals("北京市海淀区, \"中关村\"大街1号", patient.getAddress());
+    }
+
+    @Test
+    void quotedFieldsMayContainNewlines() throws IOException {
+        CsvPatientReader reader = reader("name,address\n"
+                + "赵六,\"第一行\n第二行\r\n第三行\"\n"
+                + "钱七,上海\n");
+        ParsedRow first = reader.next();
+        assertEquals(1, first.getRowNumber());
+        assertEquals("第一行\n第二行\r\n第三行", first.getPatient().getAddress());
+
+        ParsedRow second = reader.next();
+        assertEquals(2, second.getRowNumber());
+        assertEquals("钱七", second.getPatient().getName());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void handlesCrlfAndBareCrLineEndings() throws IOException {
+        CsvPatientReader reader = reader("name,phone\r\n孙八,1\r\n周九,2\r吴十,3");
+        assertEquals("1", nextPatient(reader).getPhone());
+        assertEquals("2", nextPatient(reader).getPhone());
+        Patient last = nextPatient(reader);
+        assertEquals("吴十", last.getName());
+        assertEquals("3", last.getPhone());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void skipsUtf8Bom() throws IOException {
+        CsvPatientReader reader = reader("\uFEFFname,phone\n郑一,4\n");
+        Patient patient = nextPatient(reader);
+        assertEquals("郑一", patient.getName());
+        assertEquals("4", patient.getPhone());
+    }
+
+    @Test
+    void skipsBlankLinesWithoutCountingThem() throws IOException {
+        CsvPatientReader reader = reader("name\n\n甲\r\n\r\n乙\n\n");
+        assertEquals(1, reader.next().getRowNumber());
+        ParsedRow second = reader.next();
+        assertEquals(2, second.getRowNumber());
+        assertEquals("乙", second.getPatient().getName());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void reportsRowErrorsAndContinues() throws IOException {
+        CsvPatientReader reader = reader("name,birth_date\n"
+                + "甲,1990-13-01\n"
+                + "乙,1990-01-01,extra\n"
+                + "丙,1990-01-01\n");
+        ParsedRow badDate = reader.next();
+        assertNull(badDate.getPatient());
+        assertTrue(badDate.getError().contains("birthdate"));
+
+        ParsedRow tooManyColumns = reader.next();
+        assertEquals(2, tooManyColumns.getRowNumber());
+        assertTrue(tooManyColumns.getError().contains("列数超过表头"));
+
+        assertEquals("丙", nextPatient(reader).getName());
+    }
+
+    @Test
+    void rejectsUnclosedQuote() throws IOException {
+        CsvPatientReader reader = reader("name,address\n甲,\"未闭合\n");
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    @Test
+    void rejectsEmptyFileAndMissingNameColumn() {
+        assertThrows(IllegalArgumentException.class, () -> reader(""));
+        assertThrows(IllegalArgumentException.class, () -> reader("phone,address\n1,2\n"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.medicalunion.patient.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 前缀树测试
+ * Prefix Trie Test - 收集顺序，以及删除剪枝后前缀和兄弟分支不受影响
+ */
+class PrefixTrieTest {
+
+    private static Set<Long> ids(long... values) {
+        Set<Long> set = new LinkedHashSet<>();
+        Arrays.stream(values).forEach(set::add);
+        return set;
+    }
+
+    @Test
+    void collectsExactMatchFirstThenChildrenInCharOrder() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("zs", 3);
+        trie.add("z", 1);
+        trie.add("za", 2);
+        assertEquals(ids(1, 2, 3), trie.collect("z", 10));
+        assertEquals(ids(1, 2), trie.collect("z", 2));
+    }
+
+    @Test
+    void removePrunesOnlyEmptyBranch() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("张三", 1);
+        trie.add("张三丰", 2);
+        trie.add("张飞", 3);
+
+        trie.remove("张三丰", 2);
+        assertEquals(ids(1, 3), trie.collect("张", 10));
+        assertEquals(ids(1), trie.collect("张三", 10));
+        assertTrue(trie.collect("张三丰", 10).isEmpty());
+
+        trie.remove("张三", 1);
+        assertEquals(ids(3), trie.collect("张", 10));
+        assertTrue(trie.collect("张三", 10).isEmpty());
+
+        trie.remove("张飞", 3);
+        assertTrue(trie.collect("", 10).isEmpty());
+    }
+
+    @Test
+    void removeKeepsNodeWithRemainingIdsOrChildren() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("ls", 1);
+        trie.add("ls", 2);
+        trie.add("lsi", 3);
+
+        trie.remove("ls", 1);
+        assertEquals(ids(2, 3), trie.collect("ls", 10));
+        trie.remove("ls", 2);
+        assertEquals(ids(3), trie.collect("ls", 10));
+
+        // 不存在的键或 ID 不影响现有数据
+        trie.remove("lsx", 3);
+        trie.remove("lsi", 9);
+        assertEquals(ids(3), trie.collect("l", 10));
+
+        trie.add("ls", 4);
+        assertEquals(ids(4, 3), trie.collect("ls", 10));
+    }
+}
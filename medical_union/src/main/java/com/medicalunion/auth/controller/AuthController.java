@@ -2,13 +2,18 @@ package com.medicalunion.auth.controller;
 
 import com.medicalunion.auth.dto.AuthRequests;
 import com.medicalunion.auth.dto.AuthResponses;
+import com.medicalunion.auth.exception.BizException;
+import com.medicalunion.auth.exception.ErrorCode;
+import com.medicalunion.auth.security.PasswordHasher;
 import com.medicalunion.auth.service.impl.AuthServiceImpl;
 import com.medicalunion.auth.web.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -17,6 +22,15 @@ public class AuthController {
     @Autowired
     private AuthServiceImpl authService;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    /**
+     * 可信反向代理地址（逗号分隔），只有来自这些地址的请求才采信 X-Forwarded-For
+     */
+    @Value("${auth.login.trusted-proxies:}")
+    private Set<String> trustedProxies;
+
     @PostMapping("/register")
     public ResponseEntity<ApiResponse> register(@RequestBody AuthRequests.RegisterRequest req) {
         AuthResponses.RegisterResponse res = authService.register(req);
@@ -24,9 +38,9 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse> login(@RequestBody AuthRequests.LoginRequest req) {
+    public ResponseEntity<ApiResponse> login(@RequestBody AuthRequests.LoginRequest req, HttpServletRequest request) {
         System.out.println("Login in login: " + req);
-        AuthResponses.LoginResponse res = authService.login(req);
+        AuthResponses.LoginResponse res = authService.login(req, clientIp(request));
         System.out.println(res);
         return ResponseEntity.ok(ApiResponse.success("登录成功", res));
     }
@@ -39,4 +53,31 @@ public class AuthController {
         AuthResponses.UserInfoResponse res = authService.getUserInfo(userId);
         return ResponseEntity.ok(ApiResponse.success("获取用户信息成功", res));
     }
+
+    @GetMapping("/password-hash/stats")
+    public ResponseEntity<ApiResponse> passwordHashStats(HttpServletRequest request) {
+        // 运维指标，仅管理员可见
+        if (!"ADMIN".equals(request.getAttribute("userRole"))) {
+            throw new BizException(ErrorCode.FORBIDDEN, "无权查看密码哈希统计");
+        }
+        return ResponseEntity.ok(ApiResponse.success("获取密码哈希统计成功", passwordHasher.stats()));
+    }
+
+    // 默认使用 TCP 对端地址；X-Forwarded-For 可被客户端伪造，只在对端是可信代理时采信，
+    // 并从右向左取第一个不属于可信代理的地址（最左侧的值由客户端控制）
+    private String clientIp(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || forwarded.isBlank() || !trustedProxies.contains(remote)) {
+            return remote;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !trustedProxies.contains(hop)) {
+                return hop;
+            }
+        }
+        return remote;
+    }
 }
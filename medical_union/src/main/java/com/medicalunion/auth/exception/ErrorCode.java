@@ -9,6 +9,9 @@ public enum ErrorCode {
     WEAK_PASSWORD(1004, "Weak password"),
     INVALID_INPUT(1005, "Invalid input"),
     UNAUTHORIZED(1006, "Unauthorized"),
+    TOO_MANY_REQUESTS(1007, "Too many requests"),
+    SERVICE_BUSY(1008, "Service busy"),
+    FORBIDDEN(1009, "Forbidden"),
     DB_ERROR(2001, "Database error");
 
     private final int code;
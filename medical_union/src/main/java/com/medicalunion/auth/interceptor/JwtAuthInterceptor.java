@@ -3,6 +3,8 @@ package com.medicalunion.auth.interceptor;
 import com.medicalunion.auth.util.JwtUtil;
 import com.medicalunion.auth.exception.BizException;
 import com.medicalunion.auth.exception.ErrorCode;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -31,18 +33,18 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
             throw new BizException(ErrorCode.UNAUTHORIZED, "缺少认证token");
         }
 
-        // 验证token
-        if (!jwtUtil.isTokenValid(token)) {
+        // 验证token，只解析一次
+        Claims claims;
+        try {
+            claims = jwtUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
             throw new BizException(ErrorCode.UNAUTHORIZED, "Token无效或已过期");
         }
 
         // 将用户信息存储到请求属性中，供Controller使用
         try {
-            Integer userId = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
-            
-            request.setAttribute("userId", userId);
-            request.setAttribute("userRole", role);
+            request.setAttribute("userId", claims.get("userId", Integer.class));
+            request.setAttribute("userRole", claims.get("role", String.class));
         } catch (Exception e) {
             throw new BizException(ErrorCode.UNAUTHORIZED, "Token解析失败");
         }
@@ -2,7 +2,9 @@ package com.medicalunion.auth.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import com.medicalunion.auth.model.LoginAccount;
 import com.medicalunion.auth.model.User;
+import java.util.List;
 import java.util.Map;
 
 @Mapper
@@ -16,6 +18,13 @@ public interface UserAuthMapper {
     User selectUserByUsername(@Param("username") String username);
     User selectUserByPhone(@Param("phone") String phone);
     User selectUserById(@Param("id") Integer id);
+    // 登录：一次查询取回密码哈希与资料
+    LoginAccount selectLoginAccountByPhone(@Param("phone") String phone);
+    LoginAccount selectLoginAccountByUsername(@Param("username") String username);
+    LoginAccount selectLoginAccountByDoctorCode(@Param("doctorCode") String doctorCode);
+    // 批量刷新最后登录时间（updated_at）
+    int touchUserLogin(@Param("ids") List<Integer> ids);
+    int touchDoctorLogin(@Param("ids") List<Integer> ids);
     int updateUserProfile(@Param("id") Integer id, @Param("profileJson") String profileJson);
     int updateUserPassword(@Param("id") Integer id, @Param("passwordHash") String passwordHash);
 
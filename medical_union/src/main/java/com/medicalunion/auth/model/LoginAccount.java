@@ -0,0 +1,17 @@
+package com.medicalunion.auth.model;
+
+import lombok.Data;
+
+/**
+ * 登录查询结果：密码哈希与登录响应所需的用户资料，一次查询取回
+ */
+@Data
+public class LoginAccount {
+    private Integer id;
+    private String username;
+    private String passwordHash;
+    private String role;
+    private String phone;
+    private String profileJson;
+    private boolean doctor;
+}
@@ -0,0 +1,96 @@
+package com.medicalunion.auth.security;
+
+import com.medicalunion.auth.exception.BizException;
+import com.medicalunion.auth.exception.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 登录限流：按账号和客户端 IP 各维护一个令牌桶，在查库和 BCrypt 计算之前拦截。
+ * 医院出口 IP 常被大量用户共用，IP 桶的容量应明显大于账号桶。
+ * 桶按最近使用顺序保存，超过 max-keys 时淘汰最久未使用的桶（其状态等同于新建桶或接近回满）。
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${auth.login.rate-limit.account-capacity:5}")
+    private int accountCapacity;
+
+    @Value("${auth.login.rate-limit.account-per-minute:5}")
+    private int accountPerMinute;
+
+    @Value("${auth.login.rate-limit.ip-capacity:100}")
+    private int ipCapacity;
+
+    @Value("${auth.login.rate-limit.ip-per-minute:300}")
+    private int ipPerMinute;
+
+    @Value("${auth.login.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    /**
+     * 访问有序的 LRU，所有读写在 buckets 锁内完成，临界区只有一次哈希查找
+     */
+    private final Map<String, TokenBucket> buckets = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > maxKeys;
+        }
+    };
+
+    /**
+     * 为一次登录尝试消耗令牌，任一维度超限则抛出 TOO_MANY_REQUESTS
+     */
+    public void acquire(String loginName, String clientIp) {
+        if (clientIp != null && !tryAcquire("ip:" + clientIp, ipCapacity, ipPerMinute)) {
+            throw new BizException(ErrorCode.TOO_MANY_REQUESTS, "登录过于频繁，请稍后再试");
+        }
+        if (loginName != null
+                && !tryAcquire("account:" + loginName.toLowerCase(Locale.ROOT), accountCapacity, accountPerMinute)) {
+            throw new BizException(ErrorCode.TOO_MANY_REQUESTS, "该账号登录过于频繁，请稍后再试");
+        }
+    }
+
+    private boolean tryAcquire(String key, int capacity, int perMinute) {
+        long now = System.nanoTime();
+        TokenBucket bucket;
+        synchronized (buckets) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, perMinute, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, int perMinute, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = perMinute / 60_000_000_000.0;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.medicalunion.auth.service.impl;
+
+import com.medicalunion.auth.mapper.UserAuthMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 异步批量写入最后登录时间
+ * 登录线程只登记账号 ID，定时任务合并去重后按批 UPDATE，登录请求不再等待写库。
+ * 进程异常退出时最多丢失一个刷新周期内的登录时间。
+ */
+@Component
+public class LastLoginWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginWriter.class);
+
+    @Autowired
+    private UserAuthMapper userAuthMapper;
+
+    @Value("${auth.login.last-login-batch-size:500}")
+    private int batchSize;
+
+    private final Set<Integer> pendingUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> pendingDoctors = ConcurrentHashMap.newKeySet();
+
+    public void record(Integer accountId, boolean doctor) {
+        (doctor ? pendingDoctors : pendingUsers).add(accountId);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.last-login-flush-ms:2000}")
+    public void flush() {
+        flush(pendingUsers, false);
+        flush(pendingDoctors, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flush(Set<Integer> pending, boolean doctor) {
+        while (!pending.isEmpty()) {
+            List<Integer> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<Integer> it = pending.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+                it.remove();
+            }
+            try {
+                if (doctor) {
+                    userAuthMapper.touchDoctorLogin(batch);
+                } else {
+                    userAuthMapper.touchUserLogin(batch);
+                }
+            } catch (Exception e) {
+                // 写失败放回队列，下个周期重试
+                pending.addAll(batch);
+                log.warn("批量更新最后登录时间失败，{} 个账号待重试: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+}
@@ -5,9 +5,9 @@ import com.medicalunion.auth.exception.BizException;
 import com.medicalunion.auth.exception.ErrorCode;
 import com.medicalunion.auth.mapper.UserAuthMapper;
 import com.medicalunion.auth.model.User;
+import com.medicalunion.auth.security.PasswordHasher;
 import com.medicalunion.auth.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -20,7 +20,7 @@ public class UserServiceImpl implements UserService {
     private UserAuthMapper userAuthMapper;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     // no-op
 
@@ -79,10 +79,10 @@ public class UserServiceImpl implements UserService {
         User u = userAuthMapper.selectUserById(userId);
         if (u == null) throw new BizException(ErrorCode.USER_NOT_FOUND, "用户不存在");
 
-        if (!passwordEncoder.matches(req.getOldPassword(), u.getPasswordHash()))
+        if (!passwordHasher.matches(req.getOldPassword(), u.getPasswordHash()))
             throw new BizException(ErrorCode.INVALID_PASSWORD, "旧密码不正确");
 
-        String newHash = passwordEncoder.encode(req.getNewPassword());
+        String newHash = passwordHasher.encode(req.getNewPassword());
 
         Map<String, Object> params = new HashMap<>();
         params.put("userId", userId);
@@ -2,12 +2,18 @@ package com.medicalunion.auth.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -20,9 +26,39 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24小时，单位毫秒
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.verified-cache-size:10000}") // 已验签token缓存上限
+    private int verifiedCacheSize;
+    
+    private SecretKey signingKey;
+    
+    private JwtParser parser;
+    
+    /**
+     * 已验签token缓存：token的SHA-256摘要 -> claims，缓存至token过期
+     * 访问有序的LRU，超过上限时淘汰最久未使用的项；读写都在verifiedTokens锁内完成
+     */
+    private final Map<String, VerifiedToken> verifiedTokens = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > verifiedCacheSize;
+        }
+    };
+    
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    
+    /**
+     * 启动时一次性派生签名密钥并构建解析器，JwtParser线程安全可复用
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
     
     /**
@@ -45,7 +81,7 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
@@ -87,15 +123,57 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * 验签并解析token，每个请求只需调用一次
+     * 命中缓存时只做一次摘要计算和map查找；token无效或已过期时抛出JwtException
+     */
+    public Claims parseToken(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(key);
+            if (cached != null && cached.expireAt <= now) {
+                verifiedTokens.remove(key);
+            }
+        }
+        if (cached != null) {
+            if (cached.expireAt > now) {
+                return cached.claims;
+            }
+            throw new ExpiredJwtException(null, cached.claims, "JWT expired");
+        }
+        
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date exp = claims.getExpiration();
+        if (exp != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(key, new VerifiedToken(claims, exp.getTime()));
+            }
+        }
+        return claims;
+    }
+    
     /**
      * 从token中获取所有claims
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseToken(token);
+    }
+    
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+    
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final long expireAt;
+        
+        private VerifiedToken(Claims claims, long expireAt) {
+            this.claims = claims;
+            this.expireAt = expireAt;
+        }
     }
     
     /**
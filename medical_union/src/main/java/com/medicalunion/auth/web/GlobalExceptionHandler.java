@@ -16,6 +16,9 @@ public class GlobalExceptionHandler {
         int httpStatus = switch (code) {
             case USERNAME_ALREADY_EXISTS, WEAK_PASSWORD, INVALID_INPUT -> HttpStatus.BAD_REQUEST.value();
             case INVALID_CREDENTIALS, USER_NOT_FOUND -> HttpStatus.UNAUTHORIZED.value();
+            case FORBIDDEN -> HttpStatus.FORBIDDEN.value();
+            case TOO_MANY_REQUESTS -> HttpStatus.TOO_MANY_REQUESTS.value();
+            case SERVICE_BUSY -> HttpStatus.SERVICE_UNAVAILABLE.value();
             default -> HttpStatus.INTERNAL_SERVER_ERROR.value();
         };
         ApiResponse r = new ApiResponse(code.code(), ex.getMessage(), null);